@@ -0,0 +1,98 @@
+package viva.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import viva.base.common.Source;
+import viva.core.lexers.VivaLexer;
+
+public class LexerBench {
+    private static final int DEFAULT_MEGABYTES = 16;
+    private static final int DEFAULT_ROUNDS = 10;
+    private static final int WARMUP_ROUNDS = 5;
+
+    public static String generate(int bytes, long seed) {
+        Random random = new Random(seed);
+
+        StringBuilder builder = new StringBuilder(bytes + 256);
+
+        for (int i = 0; builder.length() < bytes; i++) {
+            builder.append("let proc_").append(i).append(": proc (count: int, name: string) => int = {\n");
+            builder.append("    let total: int = ").append(random.nextInt(100000)).append(" * count + 3\n");
+            builder.append("    let label: string = \"item number ").append(random.nextInt(1000)).append(" of the batch\"\n");
+            builder.append("    let mark: char = '").append((char) ('a' + random.nextInt(26))).append("'\n");
+            builder.append("    while (total > 0 and not (total == 17)) {\n");
+            builder.append("        if (total >= 42) { total = total - ").append(random.nextInt(9) + 1).append(" }\n");
+            builder.append("        elif (total < 3) { break outer; }\n");
+            builder.append("        else { total = total / 2 | 1 }\n");
+            builder.append("    }\n");
+            builder.append("    return total + ").append(random.nextInt(1000)).append(".").append(random.nextInt(100)).append(";\n");
+            builder.append("}\n\n");
+        }
+
+        return builder.toString();
+    }
+
+    private static double run(Source source, long bytes) {
+        long start = System.nanoTime();
+
+        VivaLexer lexer = new VivaLexer(source);
+        lexer.tokenize();
+
+        long elapsed = System.nanoTime() - start;
+
+        if (lexer.getOutput().size() == 0) {
+            throw new IllegalStateException("No tokens produced");
+        }
+
+        return bytes / 1e6 / (elapsed / 1e9);
+    }
+
+    private static void report(String mode, double[] results) {
+        double[] sorted = results.clone();
+
+        Arrays.sort(sorted);
+
+        System.out.println(String.format("%-8s best %8.1f MB/s   median %8.1f MB/s   worst %8.1f MB/s",
+            mode, sorted[sorted.length - 1], sorted[sorted.length / 2], sorted[0]));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MEGABYTES;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS;
+
+        String text = generate(megabytes << 20, 42);
+        long bytes = text.getBytes(StandardCharsets.UTF_8).length;
+
+        Path file = Files.createTempFile("viva-lexer-bench", ".viva");
+
+        try {
+            Files.writeString(file, text);
+
+            System.out.println(String.format("Lexing %.1f MB of generated source, %d warmup + %d measured rounds",
+                bytes / 1e6, WARMUP_ROUNDS, rounds));
+
+            double[] chars = new double[rounds];
+            double[] mapped = new double[rounds];
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                run(Source.of(text), bytes);
+                run(Source.map(file), bytes);
+            }
+
+            for (int i = 0; i < rounds; i++) {
+                chars[i] = run(Source.of(text), bytes);
+                mapped[i] = run(Source.map(file), bytes);
+            }
+
+            report("chars", chars);
+            report("mapped", mapped);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
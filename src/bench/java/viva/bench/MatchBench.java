@@ -0,0 +1,246 @@
+package viva.bench;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import viva.base.common.TokenBuffer;
+import viva.base.common.TokenSet;
+import viva.base.common.TokenType;
+import viva.core.lexers.VivaLexer;
+import viva.core.parsers.VivaParser;
+
+public class MatchBench {
+    private static final int DEFAULT_MEGABYTES = 4;
+    private static final int DEFAULT_ROUNDS = 10;
+    private static final int WARMUP_ROUNDS = 5;
+
+    private static final TokenType[] LITERAL_TYPES = {
+        TokenType.INTEGER_LITERAL,
+        TokenType.FLOAT_LITERAL,
+        TokenType.BOOLEAN_LITERAL,
+        TokenType.CHARACTER_LITERAL,
+        TokenType.STRING_LITERAL};
+
+    private static final TokenType[] UNARY_OPERATORS = {
+        TokenType.LOGICAL_NOT,
+        TokenType.BITWISE_NOT,
+        TokenType.ADD,
+        TokenType.SUB};
+
+    private static final TokenType[] BINARY_OPERATORS = {
+        TokenType.ADD,
+        TokenType.SUB,
+        TokenType.MUL,
+        TokenType.DIV,
+        TokenType.ASSIGN,
+        TokenType.EQUAL,
+        TokenType.NOT_EQUAL,
+        TokenType.MORE_THAN,
+        TokenType.LESS_THAN,
+        TokenType.MORE_THAN_EQUAL,
+        TokenType.LESS_THAN_EQUAL,
+        TokenType.LOGICAL_AND,
+        TokenType.LOGICAL_XOR,
+        TokenType.LOGICAL_OR,
+        TokenType.BITWISE_AND,
+        TokenType.BITWISE_NOT,
+        TokenType.BITWISE_XOR,
+        TokenType.BITWISE_OR};
+
+    private static final TokenSet LITERAL_SET = TokenSet.of(LITERAL_TYPES);
+    private static final TokenSet UNARY_SET = TokenSet.of(UNARY_OPERATORS);
+    private static final TokenSet BINARY_SET = TokenSet.of(BINARY_OPERATORS);
+
+    private static final Map<TokenType, Integer> PRECEDENCE_MAP = new EnumMap<>(TokenType.class);
+    private static final int[] PRECEDENCE_TABLE = new int[TokenType.values().length];
+
+    static {
+        for (int i = 0; i < BINARY_OPERATORS.length; i++) {
+            PRECEDENCE_MAP.put(BINARY_OPERATORS[i], i + 1);
+            PRECEDENCE_TABLE[BINARY_OPERATORS[i].ordinal()] = i + 1;
+        }
+    }
+
+    private static long sink;
+
+    public static String generate(int bytes, long seed) {
+        Random random = new Random(seed);
+
+        String[] operators = {"+", "-", "*", "/", "==", "!=", "<", ">", "<=", ">=", "and", "or", "xor", "&", "|", "^"};
+
+        StringBuilder builder = new StringBuilder(bytes + 256);
+
+        for (int i = 0; builder.length() < bytes; i++) {
+            builder.append("let v").append(i).append(": int = ");
+
+            int terms = 8 + random.nextInt(24);
+
+            for (int j = 0; j < terms; j++) {
+                if (j > 0) {
+                    builder.append(' ').append(operators[random.nextInt(operators.length)]).append(' ');
+                }
+
+                switch (random.nextInt(4)) {
+                    case 0: {
+                        builder.append("x").append(random.nextInt(64));
+                        break;
+                    } case 1: {
+                        builder.append("-").append(random.nextInt(1000));
+                        break;
+                    } case 2: {
+                        builder.append("not flag");
+                        break;
+                    } default: {
+                        builder.append(random.nextInt(100000));
+                        break;
+                    }
+                }
+            }
+
+            builder.append('\n');
+        }
+
+        return builder.toString();
+    }
+
+    private static boolean matchesVarargs(TokenType[] input, int index, TokenType... types) {
+        for (TokenType type : types) {
+            if (index < input.length && input[index] == type) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static long varargs(TokenType[] input) {
+        long hits = 0;
+
+        for (int i = 0; i < input.length; i++) {
+            if (matchesVarargs(input, i, BINARY_OPERATORS)) {
+                hits += 3;
+            } else if (matchesVarargs(input, i, LITERAL_TYPES)) {
+                hits += 2;
+            } else if (matchesVarargs(input, i, UNARY_OPERATORS)) {
+                hits += 1;
+            }
+        }
+
+        return hits;
+    }
+
+    private static long bitmask(TokenType[] input) {
+        long hits = 0;
+
+        for (int i = 0; i < input.length; i++) {
+            TokenType type = input[i];
+
+            if (BINARY_SET.contains(type)) {
+                hits += 3;
+            } else if (LITERAL_SET.contains(type)) {
+                hits += 2;
+            } else if (UNARY_SET.contains(type)) {
+                hits += 1;
+            }
+        }
+
+        return hits;
+    }
+
+    private static long enumMap(TokenType[] input) {
+        long total = 0;
+
+        for (TokenType type : input) {
+            total += PRECEDENCE_MAP.getOrDefault(type, 0);
+        }
+
+        return total;
+    }
+
+    private static long ordinalTable(TokenType[] input) {
+        long total = 0;
+
+        for (TokenType type : input) {
+            total += PRECEDENCE_TABLE[type.ordinal()];
+        }
+
+        return total;
+    }
+
+    private static double time(Runnable body) {
+        long start = System.nanoTime();
+
+        body.run();
+
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    private static void report(String name, int tokens, double[] millis) {
+        double[] sorted = millis.clone();
+
+        Arrays.sort(sorted);
+
+        System.out.println(String.format("%-16s best %8.2f ms   median %8.2f ms   %8.1f Mtok/s",
+            name, sorted[0], sorted[sorted.length / 2], tokens / sorted[0] / 1e3));
+    }
+
+    public static void main(String[] args) {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MEGABYTES;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS;
+
+        VivaLexer lexer = new VivaLexer(generate(megabytes << 20, 42));
+        lexer.tokenize();
+
+        TokenBuffer buffer = lexer.getOutput();
+
+        TokenType[] input = new TokenType[buffer.size()];
+
+        for (int i = 0; i < input.length; i++) {
+            input[i] = buffer.type(i);
+        }
+
+        if (varargs(input) != bitmask(input) || enumMap(input) != ordinalTable(input)) {
+            throw new IllegalStateException("Strategies disagree");
+        }
+
+        System.out.println(String.format("%d tokens of expression-heavy input, %d warmup + %d measured rounds",
+            input.length, WARMUP_ROUNDS, rounds));
+
+        String[] names = {"varargs match", "bitmask match", "enum map prec", "ordinal prec", "parse"};
+
+        Runnable[] bodies = {
+            () -> sink += varargs(input),
+            () -> sink += bitmask(input),
+            () -> sink += enumMap(input),
+            () -> sink += ordinalTable(input),
+            () -> {
+                VivaParser parser = new VivaParser(buffer);
+                parser.parse();
+                sink += parser.getErrors();
+            }};
+
+        double[][] millis = new double[bodies.length][rounds];
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            for (Runnable body : bodies) {
+                time(body);
+            }
+        }
+
+        for (int i = 0; i < rounds; i++) {
+            for (int j = 0; j < bodies.length; j++) {
+                millis[j][i] = time(bodies[j]);
+            }
+        }
+
+        for (int j = 0; j < bodies.length; j++) {
+            report(names[j], input.length, millis[j]);
+        }
+
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package viva.bench;
+
+import viva.base.common.ast.Node;
+import viva.core.lexers.VivaLexer;
+import viva.core.parsers.VivaParser;
+
+public class NestingCheck {
+    private static final int DEFAULT_DEPTH = 100000;
+
+    private static String repeat(String open, String body, String close, int depth) {
+        StringBuilder builder = new StringBuilder((open.length() + close.length()) * depth + body.length());
+
+        for (int i = 0; i < depth; i++) {
+            builder.append(open);
+        }
+
+        builder.append(body);
+
+        for (int i = 0; i < depth; i++) {
+            builder.append(close);
+        }
+
+        return builder.append('\n').toString();
+    }
+
+    private static int depth(Node node) {
+        int depth = 0;
+
+        while (true) {
+            if (node instanceof Node.Program && !((Node.Program) node).body.isEmpty()) {
+                node = ((Node.Program) node).body.get(0);
+            } else if (node instanceof Node.Stmt.Block && !((Node.Stmt.Block) node).body.isEmpty()) {
+                node = ((Node.Stmt.Block) node).body.get(0);
+            } else if (node instanceof Node.Stmt.While) {
+                node = ((Node.Stmt.While) node).body;
+                depth++;
+            } else if (node instanceof Node.Stmt.Until) {
+                node = ((Node.Stmt.Until) node).body;
+                depth++;
+            } else if (node instanceof Node.Stmt.If) {
+                node = ((Node.Stmt.If) node).body;
+                depth++;
+            } else if (node instanceof Node.Stmt.Define.Variable) {
+                node = ((Node.Stmt.Define.Variable) node).value;
+            } else if (node instanceof Node.Stmt.Define.Proc) {
+                node = ((Node.Stmt.Define.Proc) node).body;
+            } else if (node instanceof Node.Expr.If) {
+                node = ((Node.Expr.If) node).body;
+                depth++;
+            } else if (node instanceof Node.Expr.Block && !((Node.Expr.Block) node).body.isEmpty()) {
+                node = ((Node.Expr.Block) node).body.get(0);
+                depth++;
+            } else if (node instanceof Node.Expr.While) {
+                node = ((Node.Expr.While) node).body;
+                depth++;
+            } else if (node instanceof Node.Expr.Until) {
+                node = ((Node.Expr.Until) node).body;
+                depth++;
+            } else {
+                return depth;
+            }
+        }
+    }
+
+    private static boolean check(String name, String text, int expected) {
+        long start = System.nanoTime();
+
+        VivaLexer lexer = new VivaLexer(text);
+        lexer.tokenize();
+
+        VivaParser parser = new VivaParser(lexer.getOutput());
+
+        try {
+            parser.parse();
+        } catch (StackOverflowError e) {
+            System.out.println(String.format("%-10s FAILED stack overflow at depth %d", name, expected));
+            return false;
+        }
+
+        int depth = depth(parser.getOutput());
+
+        boolean passed = parser.getErrors() == 0 && parser.getDiagnostics().getErrors() == 0 && depth == expected;
+
+        System.out.println(String.format("%-10s %s depth %d in %.1f ms",
+            name, passed ? "ok" : "FAILED", depth, (System.nanoTime() - start) / 1e6));
+
+        return passed;
+    }
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+
+        boolean passed = true;
+
+        passed &= check("while", repeat("while (x) { ", "x = 1", " }", depth), depth);
+        passed &= check("until", repeat("do { ", "x = 1", " } until (x);", depth), depth);
+        passed &= check("if", repeat("if (x) { ", "x = 1", " } else { x = 2 }", depth), depth);
+        passed &= check("if-expr", "let v: int = " + repeat("if (x) ", "1", " else 2", depth), depth);
+        passed &= check("let-block", "let v: int = " + repeat("{ let v: int = ", "1", " }", depth), depth);
+        passed &= check("let-while", "let v: int = " + repeat("while (x) let v: int = ", "1", "", depth), depth);
+        passed &= check("let-until", "let v: int = " + repeat("do let v: int = ", "1", " until (x)", depth), depth);
+        passed &= check("proc-body", "let p: proc () => int = " + repeat("{ let v: int = ", "1", " }", depth), depth);
+
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+}
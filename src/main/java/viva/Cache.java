@@ -0,0 +1,250 @@
+package viva;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.CodeSource;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import viva.base.common.Source;
+import viva.base.common.ast.Arena;
+
+public class Cache {
+    public static final long DEFAULT_MAX_SIZE = 64L << 20;
+
+    private static final String EXTENSION = ".ast";
+
+    private static final String VERSION = version();
+
+    @Getter
+    private final Path directory;
+
+    @Getter
+    private final long maxSize;
+
+    private long size;
+
+    public Cache(Path directory, long maxSize) {
+        this.directory = directory;
+
+        this.maxSize = maxSize;
+
+        this.size = -1;
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder();
+
+        for (byte b : bytes) {
+            builder.append(String.format("%02x", b));
+        }
+
+        return builder.toString();
+    }
+
+    private static String version() {
+        try {
+            CodeSource code = Cache.class.getProtectionDomain().getCodeSource();
+
+            if (code == null || code.getLocation() == null) {
+                return null;
+            }
+
+            Path location = Path.of(code.getLocation().toURI());
+
+            MessageDigest digest = digest();
+
+            digest.update(Integer.toString(Arena.FORMAT).getBytes(StandardCharsets.UTF_8));
+
+            if (Files.isDirectory(location)) {
+                List<Path> classes;
+
+                try (Stream<Path> paths = Files.walk(location)) {
+                    classes = paths.filter(path -> path.toString().endsWith(".class")).sorted().collect(Collectors.toList());
+                }
+
+                for (Path path : classes) {
+                    digest.update(location.relativize(path).toString().getBytes(StandardCharsets.UTF_8));
+                    digest.update(Files.readAllBytes(path));
+                }
+            } else if (Files.isRegularFile(location)) {
+                digest.update(Files.readAllBytes(location));
+            } else {
+                return null;
+            }
+
+            return hex(digest.digest());
+        } catch (IOException | URISyntaxException | IllegalArgumentException | SecurityException e) {
+            return null;
+        }
+    }
+
+    public String key(Path path) throws IOException {
+        if (VERSION == null) {
+            return null;
+        }
+
+        MessageDigest digest = digest();
+
+        digest.update(VERSION.getBytes(StandardCharsets.UTF_8));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            digest.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+
+        return hex(digest.digest());
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + EXTENSION);
+    }
+
+    public Arena load(String key, Source source) {
+        Path file = file(key);
+
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try {
+            Arena arena = Arena.read(file, source);
+
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+
+            return arena;
+        } catch (IOException e) {
+            try {
+                long length = Files.size(file);
+
+                if (Files.deleteIfExists(file)) {
+                    track(-length);
+                }
+            } catch (IOException ignored) {
+            }
+
+            return null;
+        }
+    }
+
+    public boolean store(String key, Arena arena) {
+        Path temp = null;
+
+        try {
+            Files.createDirectories(directory);
+
+            temp = Files.createTempFile(directory, key, ".tmp");
+
+            if (!arena.write(temp)) {
+                Files.delete(temp);
+                return false;
+            }
+
+            Path file = file(key);
+
+            long length = Files.size(temp);
+            long replaced = Files.isRegularFile(file) ? Files.size(file) : 0;
+
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            track(length - replaced);
+
+            return true;
+        } catch (IOException e) {
+            try {
+                if (temp != null) {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException ignored) {
+            }
+
+            return false;
+        }
+    }
+
+    private synchronized void track(long delta) throws IOException {
+        if (size < 0) {
+            size = 0;
+
+            for (Entry entry : entries()) {
+                size += entry.size;
+            }
+        } else {
+            size += delta;
+        }
+
+        if (size > maxSize) {
+            evict();
+        }
+    }
+
+    private List<Entry> entries() throws IOException {
+        List<Path> files;
+
+        try (Stream<Path> paths = Files.list(directory)) {
+            files = paths.filter(path -> path.toString().endsWith(EXTENSION)).collect(Collectors.toCollection(ArrayList::new));
+        }
+
+        List<Entry> entries = new ArrayList<>();
+
+        for (Path path : files) {
+            try {
+                entries.add(new Entry(path, Files.size(path), Files.getLastModifiedTime(path).toMillis()));
+            } catch (IOException ignored) {
+            }
+        }
+
+        return entries;
+    }
+
+    private void evict() throws IOException {
+        List<Entry> entries = entries();
+
+        long total = 0;
+
+        for (Entry entry : entries) {
+            total += entry.size;
+        }
+
+        entries.sort(Comparator.comparingLong(entry -> entry.used));
+
+        long target = maxSize - maxSize / 4;
+
+        for (int i = 0; i < entries.size() && total > target; i++) {
+            if (Files.deleteIfExists(entries.get(i).path)) {
+                total -= entries.get(i).size;
+            }
+        }
+
+        size = total;
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final Path path;
+
+        private final long size;
+        private final long used;
+    }
+}
@@ -1,43 +1,170 @@
 package viva;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
+import viva.base.common.Diagnostics;
+import viva.base.common.Source;
+import viva.base.common.TokenBuffer;
+import viva.base.common.ast.Node;
 import viva.base.lexers.AbstractLexer;
-import viva.base.parsers.AbstractParser;
+import viva.base.lexers.TokenWindow;
+import viva.core.checkers.VivaChecker;
 import viva.core.lexers.VivaLexer;
 import viva.core.parsers.VivaParser;
+import viva.core.resolvers.VivaResolver;
 import viva.utils.Formatter;
+import viva.utils.Outline;
 
 public class Main {
     public static void main(String[] args) {
-        if (args.length < 1) {
-            System.out.println("Usage: vivac <file>");
-            return;
+        int status = run(args);
+
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    private static int run(String[] args) {
+        boolean streaming = false;
+        boolean offHeap = false;
+        boolean parallel = false;
+        boolean outline = false;
+        boolean check = false;
+        int maxErrors = Diagnostics.DEFAULT_MAX_ERRORS;
+        int jobs = Runtime.getRuntime().availableProcessors();
+        Path cacheDirectory = null;
+        long cacheSize = Cache.DEFAULT_MAX_SIZE;
+        List<String> paths = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+
+            if (arg.equals("--stream")) {
+                streaming = true;
+            } else if (arg.equals("--off-heap")) {
+                offHeap = true;
+            } else if (arg.equals("--parallel")) {
+                parallel = true;
+            } else if (arg.equals("--outline")) {
+                outline = true;
+            } else if (arg.equals("--check")) {
+                check = true;
+            } else if (arg.equals("--max-errors") && i + 1 < args.length) {
+                maxErrors = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--jobs") && i + 1 < args.length) {
+                jobs = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--cache") && i + 1 < args.length) {
+                cacheDirectory = Path.of(args[++i]);
+            } else if (arg.equals("--cache-size") && i + 1 < args.length) {
+                cacheSize = Long.parseLong(args[++i]) << 20;
+            } else {
+                paths.add(arg);
+            }
+        }
+
+        if (paths.isEmpty()) {
+            System.out.println("Usage: vivac [--stream] [--off-heap] [--parallel] [--outline] [--check] [--max-errors <n>] [--jobs <n>] [--cache <dir>] [--cache-size <mb>] <file|dir|glob>...");
+            return 2;
+        }
+
+        if (paths.size() > 1 || cacheDirectory != null || !Files.isRegularFile(Path.of(paths.get(0)))) {
+            if (streaming || parallel) {
+                System.err.println("Warning: --stream and --parallel only apply to a single file, use --jobs <n> for projects");
+            }
+
+            return compile(paths, offHeap, outline, check, maxErrors, jobs, cacheDirectory == null ? null : new Cache(cacheDirectory, cacheSize));
         }
         
-        File file = new File(args[0]);
-        
-        try (FileInputStream stream = new FileInputStream(file)) {
-            AbstractLexer lexer = new VivaLexer(new String(stream.readAllBytes()));
+        try {
+            Source source = Source.map(Path.of(paths.get(0)));
+
+            Diagnostics diagnostics = new Diagnostics(maxErrors);
+
+            AbstractLexer lexer = new VivaLexer(source, new TokenBuffer(source, offHeap), diagnostics);
+
+            VivaParser parser;
+
+            if (streaming) {
+                parser = new VivaParser(new TokenWindow(lexer), diagnostics);
+                parser.parse();
+            } else if (parallel) {
+                lexer.tokenize(ForkJoinPool.commonPool());
+
+                parser = new VivaParser(lexer.getOutput(), diagnostics);
 
-            lexer.tokenize();
+                if (outline) {
+                    parser.deferBodies();
+                }
 
-            AbstractParser parser = new VivaParser(lexer.getOutput());
+                parser.parse(ForkJoinPool.commonPool());
+            } else {
+                lexer.tokenize();
 
-            parser.parse();
+                parser = new VivaParser(lexer.getOutput(), diagnostics);
+
+                if (outline) {
+                    parser.deferBodies();
+                }
+
+                parser.parse();
+            }
+
+            diagnostics.flush(System.out);
             
-            if (parser.getErrors() != 0) {
-                return;
+            if (parser.getErrors() != 0 || diagnostics.isFull()) {
+                return 1;
+            }
+
+            if (outline) {
+                System.out.print(new Outline().visit(parser.getOutput()));
+                return diagnostics.getErrors() != 0 ? 1 : 0;
+            }
+
+            if (check) {
+                VivaResolver resolver = new VivaResolver(diagnostics);
+                resolver.resolve((Node.Program) parser.getOutput());
+
+                new VivaChecker(diagnostics, resolver).check((Node.Program) parser.getOutput(), parallel ? ForkJoinPool.commonPool() : null);
+
+                diagnostics.flush(System.out);
+
+                if (diagnostics.getErrors() != 0) {
+                    return 1;
+                }
             }
 
             Formatter formatter = new Formatter();
             
             System.out.println("Reconstructed / Formatted Input:");
             System.out.println(formatter.visit(parser.getOutput()));
+
+            return diagnostics.getErrors() != 0 ? 1 : 0;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return 1;
+        }
+    }
+
+    private static int compile(List<String> patterns, boolean offHeap, boolean outline, boolean check, int maxErrors, int jobs, Cache cache) {
+        ForkJoinPool pool = new ForkJoinPool(jobs);
+
+        try {
+            Project project = new Project(Project.collect(patterns), offHeap, outline, check, maxErrors, cache);
+
+            return project.compile(pool, System.out) > 0 ? 1 : 0;
         } catch (IOException e) {
             e.printStackTrace();
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        } finally {
+            pool.shutdown();
         }
     }
-}
\ No newline at end of file
+}
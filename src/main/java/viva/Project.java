@@ -0,0 +1,277 @@
+package viva;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import viva.base.common.Diagnostics;
+import viva.base.common.Source;
+import viva.base.common.TokenBuffer;
+import viva.base.common.ast.Arena;
+import viva.base.common.ast.Node;
+import viva.core.checkers.VivaChecker;
+import viva.core.lexers.VivaLexer;
+import viva.core.parsers.VivaParser;
+import viva.core.resolvers.VivaResolver;
+import viva.utils.Formatter;
+import viva.utils.Outline;
+
+public class Project {
+    private static final String EXTENSION = ".viva";
+
+    @Getter
+    private final List<Path> files;
+
+    private final boolean offHeap;
+    private final boolean outline;
+    private final boolean check;
+    private final int maxErrors;
+
+    private final Cache cache;
+
+    public Project(List<Path> files, boolean offHeap, boolean outline, boolean check, int maxErrors, Cache cache) {
+        this.files = files;
+
+        this.offHeap = offHeap;
+        this.outline = outline;
+        this.check = check;
+        this.maxErrors = maxErrors;
+
+        this.cache = cache;
+    }
+
+    private static int globStart(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            switch (pattern.charAt(i)) {
+                case '*': case '?': case '[': case '{': {
+                    return i;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    private static void walk(Path root, PathMatcher matcher, Set<Path> files) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.filter(Files::isRegularFile)
+                .filter(path -> matcher == null ? path.toString().endsWith(EXTENSION) : matcher.matches(path))
+                .forEach(path -> files.add(path.normalize()));
+        }
+    }
+
+    public static List<Path> collect(List<String> patterns) throws IOException {
+        Set<Path> files = new TreeSet<>();
+
+        for (String pattern : patterns) {
+            int glob = globStart(pattern);
+
+            if (glob >= 0) {
+                int split = pattern.lastIndexOf('/', glob);
+
+                Path root = split < 0 ? Path.of("") : Path.of(pattern.substring(0, split + 1));
+
+                walk(root, FileSystems.getDefault().getPathMatcher("glob:" + pattern), files);
+            } else if (Files.isDirectory(Path.of(pattern))) {
+                walk(Path.of(pattern), null, files);
+            } else {
+                files.add(Path.of(pattern).normalize());
+            }
+        }
+
+        return new ArrayList<>(files);
+    }
+
+    private Unit compile(Path path, ForkJoinPool pool) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, false, StandardCharsets.UTF_8);
+
+        long lexTime = 0;
+        long parseTime = 0;
+        long checkTime = 0;
+        long formatTime = 0;
+
+        int errors = 0;
+
+        try {
+            long start = System.nanoTime();
+
+            Source source = Source.map(path);
+
+            String key = cache == null ? null : cache.key(path);
+            Arena arena = key == null ? null : cache.load(key, source);
+
+            boolean complete;
+
+            long parsed;
+
+            if (arena != null) {
+                complete = true;
+
+                parsed = System.nanoTime();
+                parseTime = parsed - start;
+            } else {
+                Diagnostics diagnostics = new Diagnostics(maxErrors);
+
+                VivaLexer lexer = new VivaLexer(source, new TokenBuffer(source, offHeap), diagnostics);
+                lexer.tokenize();
+
+                long lexed = System.nanoTime();
+                lexTime = lexed - start;
+
+                VivaParser parser = new VivaParser(lexer.getOutput(), diagnostics);
+
+                if (outline) {
+                    parser.deferBodies();
+                }
+
+                arena = parser.parseArena();
+
+                parsed = System.nanoTime();
+                parseTime = parsed - lexed;
+
+                complete = parser.getErrors() == 0 && !diagnostics.isFull();
+
+                errors = diagnostics.getErrors();
+
+                if (key != null && diagnostics.getEntries().isEmpty()) {
+                    cache.store(key, arena);
+                }
+
+                diagnostics.flush(out);
+            }
+
+            Node.Program program = (Node.Program) arena.node(arena.getRoot());
+
+            if (check && complete && !outline) {
+                Diagnostics diagnostics = new Diagnostics(maxErrors);
+
+                VivaResolver resolver = new VivaResolver(diagnostics);
+                resolver.resolve(program);
+
+                new VivaChecker(diagnostics, resolver).check(program, pool);
+
+                long checked = System.nanoTime();
+                checkTime = checked - parsed;
+                parsed = checked;
+
+                complete = diagnostics.getErrors() == 0;
+
+                errors += diagnostics.getErrors();
+
+                diagnostics.flush(out);
+            }
+
+            if (outline) {
+                out.print(new Outline().visit(program));
+
+                formatTime = System.nanoTime() - parsed;
+            } else if (complete) {
+                Formatter formatter = new Formatter();
+
+                out.println("Reconstructed / Formatted Input:");
+                out.println(formatter.visit(program));
+
+                formatTime = System.nanoTime() - parsed;
+            }
+        } catch (IOException e) {
+            out.println("Could not read " + path + ": " + e.getMessage());
+            errors++;
+        }
+
+        out.flush();
+
+        return new Unit(path, buffer.toString(StandardCharsets.UTF_8), errors, lexTime, parseTime, checkTime, formatTime);
+    }
+
+    public int compile(ForkJoinPool pool, PrintStream out) throws InterruptedException {
+        long start = System.nanoTime();
+
+        List<Future<Unit>> tasks = new ArrayList<>();
+
+        for (Path path : files) {
+            tasks.add(pool.submit(() -> compile(path, pool)));
+        }
+
+        List<Unit> units = new ArrayList<>();
+
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                Unit unit = tasks.get(i).get();
+
+                out.println("==> " + unit.path + " <==");
+                out.print(unit.output);
+
+                units.add(unit);
+            } catch (ExecutionException e) {
+                Unit unit = failed(files.get(i), e.getCause());
+
+                out.println("==> " + unit.path + " <==");
+                out.print(unit.output);
+
+                units.add(unit);
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+
+        return summarize(units, elapsed, out);
+    }
+
+    private static Unit failed(Path path, Throwable cause) {
+        return new Unit(path, "Compilation of " + path + " failed: " + cause + System.lineSeparator(), 1, 0, 0, 0, 0);
+    }
+
+    private static int summarize(List<Unit> units, long elapsed, PrintStream out) {
+        int failed = 0;
+        long total = 0;
+
+        out.println();
+        out.println(String.format("%10s %10s %10s %10s %8s  %s", "lex ms", "parse ms", "check ms", "format ms", "errors", "file"));
+
+        for (Unit unit : units) {
+            out.println(String.format("%10.2f %10.2f %10.2f %10.2f %8d  %s",
+                unit.lexTime / 1e6, unit.parseTime / 1e6, unit.checkTime / 1e6, unit.formatTime / 1e6, unit.errors, unit.path));
+
+            if (unit.errors != 0) {
+                failed++;
+            }
+
+            total += unit.lexTime + unit.parseTime + unit.checkTime + unit.formatTime;
+        }
+
+        out.println(String.format("Compiled %d files (%d failed) in %.2f ms, %.2f ms cumulative",
+            units.size(), failed, elapsed / 1e6, total / 1e6));
+
+        return failed;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Unit {
+        private final Path path;
+        private final String output;
+
+        private final int errors;
+
+        private final long lexTime;
+        private final long parseTime;
+        private final long checkTime;
+        private final long formatTime;
+    }
+}
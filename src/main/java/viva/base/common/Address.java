@@ -0,0 +1,13 @@
+package viva.base.common;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class Address {
+    public final int depth;
+    public final int slot;
+}
@@ -0,0 +1,32 @@
+package viva.base.common;
+
+import lombok.AllArgsConstructor;
+
+@AllArgsConstructor
+public class Diagnostic {
+    public final Severity severity;
+
+    public final Source source;
+
+    public final int offset;
+    public final int length;
+
+    public final String message;
+
+    @Override
+    public String toString() {
+        if (source == null) {
+            return String.format("%s: %s", severity, message);
+        } else {
+            return String.format("[%s:%s] %s: %s",
+                source.lines().line(offset),
+                source.lines().column(offset),
+                severity,
+                message);
+        }
+    }
+
+    public static enum Severity {
+        ERROR, WARNING, NOTE;
+    }
+}
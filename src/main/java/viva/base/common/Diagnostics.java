@@ -0,0 +1,122 @@
+package viva.base.common;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+
+public class Diagnostics {
+    public static final int DEFAULT_MAX_ERRORS = 100;
+
+    private final List<Diagnostic> entries;
+    private final Map<Source, Integer> sources;
+
+    private boolean sorted;
+
+    @Getter
+    private final int maxErrors;
+
+    @Getter
+    private int errors;
+
+    @Getter
+    private int suppressed;
+
+    public Diagnostics(int maxErrors) {
+        this.entries = new ArrayList<>();
+        this.sources = new IdentityHashMap<>();
+
+        this.sorted = true;
+
+        this.maxErrors = maxErrors;
+
+        this.errors = 0;
+        this.suppressed = 0;
+    }
+
+    public Diagnostics() {
+        this(DEFAULT_MAX_ERRORS);
+    }
+
+    public boolean isFull() {
+        return errors >= maxErrors;
+    }
+
+    private boolean cascades(Diagnostic last, Diagnostic.Severity severity, Source source, int offset) {
+        return last != null
+            && last.severity == severity
+            && last.source == source
+            && offset >= last.offset
+            && offset < last.offset + Math.max(last.length, 1);
+    }
+
+    public void report(Diagnostic.Severity severity, Source source, int offset, int length, String message) {
+        Diagnostic last = entries.isEmpty() ? null : entries.get(entries.size() - 1);
+
+        if (isFull() && severity == Diagnostic.Severity.ERROR) {
+            suppressed++;
+        } else if (cascades(last, severity, source, offset)) {
+            suppressed++;
+        } else {
+            Integer rank = sources.computeIfAbsent(source, key -> sources.size());
+
+            if (last != null && (sources.get(last.source) > rank || last.source == source && last.offset > offset)) {
+                sorted = false;
+            }
+
+            entries.add(new Diagnostic(severity, source, offset, length, message));
+
+            if (severity == Diagnostic.Severity.ERROR) {
+                errors++;
+            }
+        }
+    }
+
+    public void error(Source source, int offset, int length, String message) {
+        report(Diagnostic.Severity.ERROR, source, offset, length, message);
+    }
+
+    public void addAll(Diagnostics other) {
+        for (Diagnostic diagnostic : other.entries) {
+            report(diagnostic.severity, diagnostic.source, diagnostic.offset, diagnostic.length, diagnostic.message);
+        }
+
+        suppressed += other.suppressed;
+    }
+
+    public List<Diagnostic> getEntries() {
+        if (!sorted) {
+            entries.sort(Comparator.<Diagnostic>comparingInt(diagnostic -> sources.get(diagnostic.source))
+                .thenComparingInt(diagnostic -> diagnostic.offset));
+
+            sorted = true;
+        }
+
+        return Collections.unmodifiableList(entries);
+    }
+
+    public void flush(PrintStream out) {
+        StringBuilder builder = new StringBuilder();
+
+        for (Diagnostic diagnostic : getEntries()) {
+            builder.append(diagnostic).append(System.lineSeparator());
+        }
+
+        if (isFull()) {
+            builder.append(String.format("Stopped after %s errors (%s more suppressed)", errors, suppressed)).append(System.lineSeparator());
+        }
+
+        out.print(builder);
+        out.flush();
+
+        entries.clear();
+        sources.clear();
+
+        sorted = true;
+    }
+}
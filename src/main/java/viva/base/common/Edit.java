@@ -0,0 +1,13 @@
+package viva.base.common;
+
+import lombok.AllArgsConstructor;
+import lombok.ToString;
+
+@AllArgsConstructor
+@ToString
+public class Edit {
+    public final int offset;
+    public final int deleted;
+
+    public final String inserted;
+}
@@ -1,32 +1,153 @@
 package viva.base.common;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 import lombok.Getter;
 
 public class Environment {
-    private Map<String, Object> variables;
-    
+    private static final int EMPTY = -1;
+    private static final int INLINE = 8;
+
+    private static final int[] NO_KEYS = new int[0];
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private int[] keys;
+    private Object[] values;
+
+    private int size;
+
     @Getter
     private Environment parent;
 
     public Environment(Environment parent) {
-        this.variables = new HashMap<>();
-        
+        this.keys = NO_KEYS;
+        this.values = NO_VALUES;
+
+        this.size = 0;
+
         this.parent = parent;
     }
 
+    private static int hash(int symbol) {
+        int h = symbol * 0x9E3779B9;
+
+        return h ^ (h >>> 16);
+    }
+
+    private boolean isInline() {
+        return keys.length <= INLINE;
+    }
+
+    private int indexOf(int symbol) {
+        int[] keys = this.keys;
+
+        if (isInline()) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == symbol) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        int mask = keys.length - 1;
+
+        for (int i = hash(symbol) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == symbol) {
+                return i;
+            } else if (keys[i] == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    private void place(int symbol, Object v) {
+        int mask = keys.length - 1;
+
+        int i = hash(symbol) & mask;
+
+        while (keys[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = symbol;
+        values[i] = v;
+    }
+
+    private void grow() {
+        if (size < INLINE) {
+            keys = Arrays.copyOf(keys, Math.max(size * 2, 2));
+            values = Arrays.copyOf(values, keys.length);
+            return;
+        }
+
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        boolean inline = isInline();
+
+        int capacity = inline ? INLINE * 4 : oldKeys.length * 2;
+
+        keys = new int[capacity];
+        values = new Object[capacity];
+
+        Arrays.fill(keys, EMPTY);
+
+        for (int i = 0; i < (inline ? size : oldKeys.length); i++) {
+            if (oldKeys[i] != EMPTY) {
+                place(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    public void set(int symbol, Object v) {
+        int index = indexOf(symbol);
+
+        if (index >= 0) {
+            if (values[index] == null) {
+                values[index] = v;
+            }
+
+            return;
+        }
+
+        if (v == null) {
+            return;
+        }
+
+        if (isInline() ? size == keys.length : (size + 1) * 2 > keys.length) {
+            grow();
+        }
+
+        if (isInline()) {
+            keys[size] = symbol;
+            values[size] = v;
+        } else {
+            place(symbol, v);
+        }
+
+        size++;
+    }
+
     public void set(String k, Object v) {
-        variables.computeIfAbsent(k, f -> v);
+        set(Symbols.GLOBAL.intern(k), v);
     }
 
-    public Object get(String k) {
+    public void merge(Environment other) {
+        for (int symbol : other.symbols()) {
+            set(symbol, other.values[other.indexOf(symbol)]);
+        }
+    }
+
+    public Object get(int symbol) {
         Environment env = this;
-        
+
         while (env != null) {
-            if (env.variables.containsKey(k)) {
-                return env.variables.get(k);
+            int index = env.size == 0 ? -1 : env.indexOf(symbol);
+
+            if (index >= 0) {
+                return env.values[index];
             } else {
                 env = env.parent;
             }
@@ -35,8 +156,46 @@ public class Environment {
         return null;
     }
 
+    public Object get(String k) {
+        return get(Symbols.GLOBAL.intern(k));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int[] symbols() {
+        if (size == 0) {
+            return NO_KEYS;
+        } else if (isInline()) {
+            return Arrays.copyOf(keys, size);
+        }
+
+        int[] symbols = new int[size];
+
+        int j = 0;
+
+        for (int key : keys) {
+            if (key != EMPTY) {
+                symbols[j++] = key;
+            }
+        }
+
+        return symbols;
+    }
+
     @Override
     public String toString() {
-        return variables.toString();
+        StringBuilder builder = new StringBuilder("{");
+
+        for (int symbol : symbols()) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+
+            builder.append(Symbols.GLOBAL.get(symbol)).append('=').append(values[indexOf(symbol)]);
+        }
+
+        return builder.append('}').toString();
     }
 }
@@ -0,0 +1,145 @@
+package viva.base.common;
+
+import java.util.Arrays;
+
+import lombok.Getter;
+
+public class Interner {
+    private static final int INITIAL_CAPACITY = 256;
+
+    @Getter
+    private final Symbols global;
+
+    private int[] slots;
+
+    private String[] symbols;
+    private int[] hashes;
+    private int[] ids;
+
+    private int size;
+
+    public Interner(Symbols global) {
+        this.global = global;
+
+        this.slots = new int[INITIAL_CAPACITY];
+
+        this.symbols = new String[INITIAL_CAPACITY / 2];
+        this.hashes = new int[INITIAL_CAPACITY / 2];
+        this.ids = new int[INITIAL_CAPACITY / 2];
+
+        this.size = 0;
+    }
+
+    public Interner() {
+        this(Symbols.GLOBAL);
+    }
+
+    private static int hash(Source source, int start, int end) {
+        int hash = 0;
+
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.at(i);
+        }
+
+        return hash;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean equals(String symbol, Source source, int start, int end) {
+        if (symbol.length() != end - start) {
+            return false;
+        }
+
+        for (int i = start; i < end; i++) {
+            if (symbol.charAt(i - start) != source.at(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void grow() {
+        slots = new int[slots.length * 2];
+
+        symbols = Arrays.copyOf(symbols, symbols.length * 2);
+        hashes = Arrays.copyOf(hashes, hashes.length * 2);
+        ids = Arrays.copyOf(ids, ids.length * 2);
+
+        int mask = slots.length - 1;
+
+        for (int id = 0; id < size; id++) {
+            int slot = mix(hashes[id]) & mask;
+
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            slots[slot] = id + 1;
+        }
+    }
+
+    public int intern(Source source, int start, int end) {
+        int hash = hash(source, start, end);
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+
+            if (hashes[id] == hash && equals(symbols[id], source, start, end)) {
+                return ids[id];
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return add(slot, source.text(start, end), hash);
+    }
+
+    public int intern(String text) {
+        int hash = text.hashCode();
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+
+            if (hashes[id] == hash && symbols[id].equals(text)) {
+                return ids[id];
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return add(slot, text, hash);
+    }
+
+    private int add(int slot, String text, int hash) {
+        int id = size++;
+        int symbol = global.intern(text);
+
+        symbols[id] = global.get(symbol);
+        hashes[id] = hash;
+        ids[id] = symbol;
+
+        slots[slot] = id + 1;
+
+        if (size == symbols.length) {
+            grow();
+        }
+
+        return symbol;
+    }
+
+    public String get(int symbol) {
+        return global.get(symbol);
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,56 @@
+package viva.base.common;
+
+import java.util.Arrays;
+
+public class LineIndex {
+    private final Source source;
+
+    private final int[] starts;
+
+    private LineIndex(Source source, int[] starts) {
+        this.source = source;
+
+        this.starts = starts;
+    }
+
+    public static LineIndex of(Source source) {
+        int[] starts = new int[64];
+        int lines = 1;
+
+        for (int i = 0; i < source.length(); i++) {
+            if (source.at(i) == '\n') {
+                if (lines == starts.length) {
+                    starts = Arrays.copyOf(starts, lines * 2);
+                }
+
+                starts[lines++] = i + 1;
+            }
+        }
+
+        return new LineIndex(source, Arrays.copyOf(starts, lines));
+    }
+
+    public int lines() {
+        return starts.length;
+    }
+
+    public int line(int offset) {
+        int line = Arrays.binarySearch(starts, offset);
+
+        return line >= 0 ? line + 1 : -line - 1;
+    }
+
+    public int column(int offset) {
+        return source.columns(starts[line(offset) - 1], offset) + 1;
+    }
+
+    public int offset(int line, int column) {
+        int offset = starts[line - 1];
+
+        for (int i = 1; i < column && offset < source.length(); i++) {
+            offset += source.width(offset);
+        }
+
+        return offset;
+    }
+}
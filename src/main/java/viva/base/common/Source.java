@@ -0,0 +1,360 @@
+package viva.base.common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import viva.utils.LexerUtils;
+
+public interface Source {
+    public int length();
+
+    public char at(int index);
+
+    public String text(int start, int end);
+
+    public int scan(int index, int mask);
+
+    public Source splice(int offset, int deleted, String inserted);
+
+    public LineIndex lines();
+
+    public default int columns(int start, int end) {
+        return end - start;
+    }
+
+    public default int width(int index) {
+        return 1;
+    }
+
+    public static Source of(String text) {
+        return new Source.Chars(text.toCharArray());
+    }
+
+    public static Source of(ByteBuffer bytes) {
+        return new Source.Bytes(bytes);
+    }
+
+    public static Source map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Source " + path + " is larger than " + Integer.MAX_VALUE + " bytes");
+            }
+
+            return new Source.Bytes(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    public static class Chars implements Source {
+        private final char[] input;
+
+        private volatile LineIndex lines;
+
+        public Chars(char[] input) {
+            this.input = input;
+        }
+
+        @Override
+        public int length() {
+            return input.length;
+        }
+
+        @Override
+        public char at(int index) {
+            return input[index];
+        }
+
+        @Override
+        public String text(int start, int end) {
+            return new String(input, start, end - start);
+        }
+
+        @Override
+        public LineIndex lines() {
+            if (lines == null) {
+                lines = LineIndex.of(this);
+            }
+
+            return lines;
+        }
+
+        @Override
+        public Source splice(int offset, int deleted, String inserted) {
+            return new Source.Spliced(this, offset, deleted, Source.of(inserted));
+        }
+
+        @Override
+        public int scan(int index, int mask) {
+            char[] input = this.input;
+
+            while (index < input.length && (LexerUtils.classOf(input[index]) & mask) != 0) {
+                index++;
+            }
+
+            return index;
+        }
+    }
+
+    public static class Bytes implements Source {
+        private final ByteBuffer input;
+
+        private volatile LineIndex lines;
+
+        public Bytes(ByteBuffer input) {
+            this.input = input;
+        }
+
+        @Override
+        public int length() {
+            return input.limit();
+        }
+
+        @Override
+        public char at(int index) {
+            return (char) (input.get(index) & 0xFF);
+        }
+
+        @Override
+        public String text(int start, int end) {
+            byte[] bytes = new byte[end - start];
+
+            input.get(start, bytes);
+
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public LineIndex lines() {
+            if (lines == null) {
+                lines = LineIndex.of(this);
+            }
+
+            return lines;
+        }
+
+        @Override
+        public Source splice(int offset, int deleted, String inserted) {
+            return new Source.Spliced(this, offset, deleted, Source.of(ByteBuffer.wrap(inserted.getBytes(StandardCharsets.UTF_8))));
+        }
+
+        @Override
+        public int scan(int index, int mask) {
+            ByteBuffer input = this.input;
+            int limit = input.limit();
+
+            while (index < limit && (LexerUtils.classOf((char) (input.get(index) & 0xFF)) & mask) != 0) {
+                index++;
+            }
+
+            return index;
+        }
+
+        @Override
+        public int columns(int start, int end) {
+            int columns = 0;
+
+            for (int i = start; i < end; i++) {
+                if ((input.get(i) & 0xC0) != 0x80) {
+                    columns++;
+                }
+            }
+
+            return columns;
+        }
+
+
+        @Override
+        public int width(int index) {
+            int lead = input.get(index) & 0xFF;
+
+            if (lead < 0xC0) {
+                return 1;
+            } else if (lead < 0xE0) {
+                return 2;
+            } else if (lead < 0xF0) {
+                return 3;
+            } else {
+                return 4;
+            }
+        }
+    }
+
+    public static class Spliced implements Source {
+        public static final int MAX_DEPTH = 32;
+
+        private final Source base;
+
+        private final int offset;
+        private final int deleted;
+
+        private final Source inserted;
+
+        private final boolean bytes;
+        private final int depth;
+
+        private volatile LineIndex lines;
+
+        public Spliced(Source base, int offset, int deleted, Source inserted) {
+            this.base = base;
+
+            this.offset = offset;
+            this.deleted = deleted;
+
+            this.inserted = inserted;
+
+            this.bytes = inserted instanceof Source.Bytes;
+            this.depth = base instanceof Source.Spliced ? ((Source.Spliced) base).depth + 1 : 1;
+        }
+
+        @Override
+        public int length() {
+            return base.length() - deleted + inserted.length();
+        }
+
+        @Override
+        public char at(int index) {
+            if (index < offset) {
+                return base.at(index);
+            } else if (index < offset + inserted.length()) {
+                return inserted.at(index - offset);
+            } else {
+                return base.at(index - inserted.length() + deleted);
+            }
+        }
+
+        @Override
+        public String text(int start, int end) {
+            if (end <= offset) {
+                return base.text(start, end);
+            } else if (start >= offset + inserted.length()) {
+                return base.text(start - inserted.length() + deleted, end - inserted.length() + deleted);
+            } else if (start >= offset && end <= offset + inserted.length()) {
+                return inserted.text(start - offset, end - offset);
+            }
+
+            return flatten(start, end).text(0, end - start);
+        }
+
+        @Override
+        public int scan(int index, int mask) {
+            int length = length();
+
+            while (index < length && (LexerUtils.classOf(at(index)) & mask) != 0) {
+                index++;
+            }
+
+            return index;
+        }
+
+        @Override
+        public Source splice(int offset, int deleted, String inserted) {
+            Source base = depth < MAX_DEPTH ? this : flatten(0, length());
+
+            if (bytes) {
+                return new Source.Spliced(base, offset, deleted, Source.of(ByteBuffer.wrap(inserted.getBytes(StandardCharsets.UTF_8))));
+            } else {
+                return new Source.Spliced(base, offset, deleted, Source.of(inserted));
+            }
+        }
+
+        private Source flatten(int start, int end) {
+            if (bytes) {
+                byte[] output = new byte[end - start];
+
+                copy(this, start, end, output, 0);
+
+                return new Source.Bytes(ByteBuffer.wrap(output));
+            } else {
+                char[] output = new char[end - start];
+
+                copy(this, start, end, output, 0);
+
+                return new Source.Chars(output);
+            }
+        }
+
+        private static void copy(Source source, int start, int end, Object output, int position) {
+            if (start >= end) {
+                return;
+            } else if (source instanceof Source.Spliced) {
+                ((Source.Spliced) source).copy(start, end, output, position);
+            } else if (source instanceof Source.Chars && output instanceof char[]) {
+                System.arraycopy(((Source.Chars) source).input, start, output, position, end - start);
+            } else if (source instanceof Source.Bytes && output instanceof byte[]) {
+                ((Source.Bytes) source).input.get(start, (byte[]) output, position, end - start);
+            } else if (output instanceof byte[]) {
+                for (int i = start; i < end; i++) {
+                    ((byte[]) output)[position + i - start] = (byte) source.at(i);
+                }
+            } else {
+                for (int i = start; i < end; i++) {
+                    ((char[]) output)[position + i - start] = source.at(i);
+                }
+            }
+        }
+
+        private void copy(int start, int end, Object output, int position) {
+            int split = offset + inserted.length();
+
+            copy(base, start, Math.min(end, offset), output, position);
+
+            int from = Math.max(start, offset);
+
+            copy(inserted, from - offset, Math.min(end, split) - offset, output, position + from - start);
+
+            from = Math.max(start, split);
+
+            copy(base, from - split + offset + deleted, end - split + offset + deleted, output, position + from - start);
+        }
+
+        @Override
+        public LineIndex lines() {
+            if (lines == null) {
+                lines = LineIndex.of(this);
+            }
+
+            return lines;
+        }
+
+        @Override
+        public int columns(int start, int end) {
+            if (!bytes) {
+                return end - start;
+            }
+
+            int columns = 0;
+
+            for (int i = start; i < end; i++) {
+                if ((at(i) & 0xC0) != 0x80) {
+                    columns++;
+                }
+            }
+
+            return columns;
+        }
+
+        @Override
+        public int width(int index) {
+            if (!bytes) {
+                return 1;
+            }
+
+            int lead = at(index);
+
+            if (lead < 0xC0) {
+                return 1;
+            } else if (lead < 0xE0) {
+                return 2;
+            } else if (lead < 0xF0) {
+                return 3;
+            } else {
+                return 4;
+            }
+        }
+    }
+}
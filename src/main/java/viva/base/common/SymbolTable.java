@@ -0,0 +1,160 @@
+package viva.base.common;
+
+import java.util.function.BiConsumer;
+
+import lombok.AllArgsConstructor;
+
+public final class SymbolTable<V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final SymbolTable<?> EMPTY = new SymbolTable<>(new Trie(0, new Object[0]), 0);
+
+    private final Trie root;
+
+    private final int size;
+
+    private SymbolTable(Trie root, int size) {
+        this.root = root;
+
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> SymbolTable<V> empty() {
+        return (SymbolTable<V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int symbol) {
+        return find(symbol) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int symbol) {
+        Entry entry = find(symbol);
+
+        return entry == null ? null : (V) entry.value;
+    }
+
+    private Entry find(int symbol) {
+        Trie trie = root;
+
+        for (int shift = 0; ; shift += BITS) {
+            int bit = 1 << ((symbol >>> shift) & MASK);
+
+            if ((trie.bitmap & bit) == 0) {
+                return null;
+            }
+
+            Object child = trie.children[Integer.bitCount(trie.bitmap & (bit - 1))];
+
+            if (child instanceof Entry) {
+                return ((Entry) child).symbol == symbol ? (Entry) child : null;
+            }
+
+            trie = (Trie) child;
+        }
+    }
+
+    public SymbolTable<V> put(int symbol, V value) {
+        boolean[] added = new boolean[1];
+
+        Trie trie = put(root, 0, new Entry(symbol, value), added);
+
+        return new SymbolTable<>(trie, added[0] ? size + 1 : size);
+    }
+
+    private static Trie put(Trie trie, int shift, Entry entry, boolean[] added) {
+        int bit = 1 << ((entry.symbol >>> shift) & MASK);
+        int index = Integer.bitCount(trie.bitmap & (bit - 1));
+
+        if ((trie.bitmap & bit) == 0) {
+            Object[] children = new Object[trie.children.length + 1];
+
+            System.arraycopy(trie.children, 0, children, 0, index);
+            System.arraycopy(trie.children, index, children, index + 1, trie.children.length - index);
+
+            children[index] = entry;
+            added[0] = true;
+
+            return new Trie(trie.bitmap | bit, children);
+        }
+
+        Object child = trie.children[index];
+        Object replacement;
+
+        if (child instanceof Trie) {
+            replacement = put((Trie) child, shift + BITS, entry, added);
+        } else if (((Entry) child).symbol == entry.symbol) {
+            replacement = entry;
+        } else {
+            replacement = put(put(new Trie(0, new Object[0]), shift + BITS, (Entry) child, added), shift + BITS, entry, added);
+        }
+
+        Object[] children = trie.children.clone();
+
+        children[index] = replacement;
+
+        return new Trie(trie.bitmap, children);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<Integer, V> action) {
+        Trie[] stack = new Trie[(Integer.SIZE + BITS - 1) / BITS + 1];
+        int[] positions = new int[stack.length];
+
+        int depth = 0;
+
+        stack[0] = root;
+
+        while (depth >= 0) {
+            Trie trie = stack[depth];
+
+            if (positions[depth] == trie.children.length) {
+                positions[depth--] = 0;
+                continue;
+            }
+
+            Object child = trie.children[positions[depth]++];
+
+            if (child instanceof Entry) {
+                action.accept(((Entry) child).symbol, (V) ((Entry) child).value);
+            } else {
+                stack[++depth] = (Trie) child;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+
+        forEach((symbol, v) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+
+            builder.append(Symbols.GLOBAL.get(symbol)).append('=').append(v);
+        });
+
+        return builder.append('}').toString();
+    }
+
+    @AllArgsConstructor
+    private static final class Trie {
+        private final int bitmap;
+
+        private final Object[] children;
+    }
+
+    @AllArgsConstructor
+    private static final class Entry {
+        private final int symbol;
+
+        private final Object value;
+    }
+}
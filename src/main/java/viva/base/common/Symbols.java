@@ -0,0 +1,90 @@
+package viva.base.common;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class Symbols {
+    public static final Symbols GLOBAL = new Symbols();
+
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int DIRECTORY_SIZE = Integer.SIZE - CHUNK_BITS;
+
+    private static class Slot {
+        private volatile int id = -1;
+    }
+
+    private final ConcurrentHashMap<String, Slot> ids;
+    private final AtomicInteger size;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<String>> chunks;
+
+    public Symbols() {
+        this.ids = new ConcurrentHashMap<>();
+        this.size = new AtomicInteger();
+
+        this.chunks = new AtomicReferenceArray<>(DIRECTORY_SIZE);
+    }
+
+    private static int chunkOf(int position) {
+        return Integer.SIZE - 1 - Integer.numberOfLeadingZeros(position) - CHUNK_BITS;
+    }
+
+    private static int offsetOf(int position) {
+        return position ^ Integer.highestOneBit(position);
+    }
+
+    private void store(int id, String text) {
+        int position = id + CHUNK_SIZE;
+        int chunk = chunkOf(position);
+
+        AtomicReferenceArray<String> entries = chunks.get(chunk);
+
+        if (entries == null) {
+            chunks.compareAndSet(chunk, null, new AtomicReferenceArray<>(CHUNK_SIZE << chunk));
+
+            entries = chunks.get(chunk);
+        }
+
+        entries.compareAndSet(offsetOf(position), null, text);
+    }
+
+    public int intern(String text) {
+        Slot slot = ids.get(text);
+
+        if (slot == null) {
+            Slot created = new Slot();
+
+            slot = ids.putIfAbsent(text, created);
+
+            if (slot == null) {
+                int id = size.getAndIncrement();
+
+                store(id, text);
+
+                created.id = id;
+
+                return id;
+            }
+        }
+
+        int id;
+
+        while ((id = slot.id) < 0) {
+            Thread.onSpinWait();
+        }
+
+        return id;
+    }
+
+    public String get(int id) {
+        int position = id + CHUNK_SIZE;
+
+        return chunks.get(chunkOf(position)).get(offsetOf(position));
+    }
+
+    public int size() {
+        return size.get();
+    }
+}
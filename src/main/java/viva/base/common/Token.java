@@ -1,15 +1,69 @@
 package viva.base.common;
 
-import lombok.AllArgsConstructor;
 import lombok.ToString;
 
-@AllArgsConstructor
 @ToString
 public class Token {
-    public final String lexeme;
+    @ToString.Exclude
+    public final Source source;
 
     public final TokenType type;
 
-    public final int line;
-    public final int column;
+    public final int offset;
+    public final int length;
+
+    @ToString.Exclude
+    private String lexeme;
+
+    @ToString.Exclude
+    private int symbol;
+
+    public Token(Source source, TokenType type, int offset, int length) {
+        this(source, type, offset, length, -1, null);
+    }
+
+    public Token(Source source, TokenType type, int offset, int length, String lexeme) {
+        this(source, type, offset, length, -1, lexeme);
+    }
+
+    public Token(Source source, TokenType type, int offset, int length, int symbol, String lexeme) {
+        this.source = source;
+
+        this.type = type;
+
+        this.offset = offset;
+        this.length = length;
+
+        this.symbol = symbol;
+        this.lexeme = lexeme;
+    }
+
+    @ToString.Include(name = "lexeme")
+    public String lexeme() {
+        if (type.getText() != null) {
+            return type.getText();
+        } else if (lexeme == null) {
+            lexeme = source.text(offset, offset + length);
+        }
+
+        return lexeme;
+    }
+
+    public int symbol() {
+        if (symbol < 0) {
+            symbol = Symbols.GLOBAL.intern(lexeme());
+        }
+
+        return symbol;
+    }
+
+    @ToString.Include(name = "line")
+    public int line() {
+        return source.lines().line(offset);
+    }
+
+    @ToString.Include(name = "column")
+    public int column() {
+        return source.lines().column(offset);
+    }
 }
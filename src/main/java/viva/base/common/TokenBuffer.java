@@ -0,0 +1,237 @@
+package viva.base.common;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+import lombok.Getter;
+
+public class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    @Getter
+    private final Source source;
+
+    @Getter
+    private final Interner interner;
+
+    private final boolean direct;
+
+    private ByteBuffer types;
+
+    private IntBuffer offsets;
+    private IntBuffer lengths;
+
+    private IntBuffer symbols;
+
+    private int size;
+
+    public TokenBuffer(Source source, Interner interner, int capacity, boolean direct) {
+        this.source = source;
+
+        this.interner = interner;
+
+        this.direct = direct;
+
+        this.types = bytes(capacity);
+
+        this.offsets = ints(capacity);
+        this.lengths = ints(capacity);
+
+        this.symbols = ints(capacity);
+
+        this.size = 0;
+    }
+
+    public TokenBuffer(Source source, ByteBuffer types, IntBuffer offsets, IntBuffer lengths) {
+        this.source = source;
+
+        this.interner = new Interner();
+
+        this.direct = types.isDirect();
+
+        this.types = types;
+
+        this.offsets = offsets;
+        this.lengths = lengths;
+
+        this.symbols = null;
+
+        this.size = types.limit();
+    }
+
+    public TokenBuffer(Source source, boolean direct) {
+        this(source, new Interner(), DEFAULT_CAPACITY, direct);
+    }
+
+    public TokenBuffer(Source source) {
+        this(source, false);
+    }
+
+    private ByteBuffer bytes(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private IntBuffer ints(int capacity) {
+        return direct
+            ? ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer()
+            : IntBuffer.allocate(capacity);
+    }
+
+    private void grow() {
+        grow(types.capacity() + 1);
+    }
+
+    private void grow(int required) {
+        int capacity = Math.max(types.capacity() * 2, 16);
+
+        while (capacity < required) {
+            capacity *= 2;
+        }
+
+        types = bytes(capacity).put(types.position(0).limit(size));
+
+        offsets = ints(capacity).put(offsets.position(0).limit(size));
+        lengths = ints(capacity).put(lengths.position(0).limit(size));
+
+        if (symbols == null) {
+            symbols = ints(capacity);
+
+            for (int i = 0; i < size; i++) {
+                symbols.put(i, -1);
+            }
+        } else {
+            symbols = ints(capacity).put(symbols.position(0).limit(size));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    public void add(TokenType type, int offset, int length) {
+        add(type, offset, length, -1);
+    }
+
+    public void add(TokenType type, int offset, int length, int symbol) {
+        if (size == types.capacity() || symbols == null) {
+            grow();
+        }
+
+        types.put(size, (byte) type.ordinal());
+
+        offsets.put(size, offset);
+        lengths.put(size, length);
+
+        symbols.put(size, symbol);
+
+        size++;
+    }
+
+    public void append(TokenBuffer other) {
+        boolean shared = other.interner.getGlobal() == interner.getGlobal();
+
+        for (int i = 0; i < other.size; i++) {
+            int symbol = other.symbol(i);
+
+            if (symbol >= 0 && !shared) {
+                symbol = interner.intern(other.interner.get(symbol));
+            }
+
+            add(other.type(i), other.offset(i), other.length(i), symbol);
+        }
+    }
+
+    public void append(TokenBuffer other, int from, int to, int delta) {
+        int count = to - from;
+
+        if (count <= 0) {
+            return;
+        } else if (size + count > types.capacity() || symbols == null) {
+            grow(size + count);
+        }
+
+        types.put(size, other.types, from, count);
+
+        lengths.put(size, other.lengths, from, count);
+
+        if (other.symbols == null) {
+            for (int i = 0; i < count; i++) {
+                symbols.put(size + i, -1);
+            }
+        } else {
+            symbols.put(size, other.symbols, from, count);
+        }
+
+        offsets.put(size, other.offsets, from, count);
+
+        if (delta != 0 && offsets.hasArray()) {
+            int[] array = offsets.array();
+
+            for (int i = offsets.arrayOffset() + size; i < offsets.arrayOffset() + size + count; i++) {
+                array[i] += delta;
+            }
+        } else if (delta != 0) {
+            for (int i = size; i < size + count; i++) {
+                offsets.put(i, offsets.get(i) + delta);
+            }
+        }
+
+        size += count;
+    }
+
+    public void truncate(int size) {
+        this.size = Math.min(this.size, size);
+    }
+
+    public TokenType type(int index) {
+        return TYPES[types.get(index)];
+    }
+
+    public int offset(int index) {
+        return offsets.get(index);
+    }
+
+    public int length(int index) {
+        return lengths.get(index);
+    }
+
+    public int symbol(int index) {
+        return symbols == null ? -1 : symbols.get(index);
+    }
+
+    public int indexAt(int offset) {
+        int low = 0;
+        int high = size;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+
+            if (offset(mid) < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    public Token get(int index) {
+        int symbol = symbol(index);
+
+        if (symbol < 0) {
+            return new Token(source, type(index), offset(index), length(index));
+        } else if (interner.getGlobal() == Symbols.GLOBAL) {
+            return new Token(source, type(index), offset(index), length(index), symbol, interner.get(symbol));
+        } else {
+            return new Token(source, type(index), offset(index), length(index), interner.get(symbol));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package viva.base.common;
+
+public class TokenCursor implements TokenStream {
+    private final TokenBuffer input;
+
+    private final int start;
+    private final int end;
+
+    private int index;
+
+    public TokenCursor(TokenBuffer input, int start, int end) {
+        this.input = input;
+
+        this.start = start;
+        this.end = end;
+
+        this.index = start;
+    }
+
+    public TokenCursor(TokenBuffer input) {
+        this(input, 0, input.size());
+    }
+
+    @Override
+    public boolean eos(int lookahead) {
+        return index + lookahead >= end;
+    }
+
+    @Override
+    public TokenType type(int lookahead) {
+        if (eos(lookahead) || index + lookahead < start) {
+            return null;
+        } else {
+            return input.type(index + lookahead);
+        }
+    }
+
+    @Override
+    public Token read(int lookahead) {
+        if (eos(lookahead) || index + lookahead < start) {
+            return null;
+        } else {
+            return input.get(index + lookahead);
+        }
+    }
+
+    @Override
+    public int offset(int lookahead) {
+        if (eos(lookahead) || index + lookahead < start) {
+            return -1;
+        } else {
+            return input.offset(index + lookahead);
+        }
+    }
+
+    @Override
+    public int length(int lookahead) {
+        if (eos(lookahead) || index + lookahead < start) {
+            return -1;
+        } else {
+            return input.length(index + lookahead);
+        }
+    }
+
+    @Override
+    public void next() {
+        index++;
+    }
+
+    @Override
+    public Source getSource() {
+        return input.getSource();
+    }
+}
@@ -0,0 +1,74 @@
+package viva.base.common;
+
+import java.util.StringJoiner;
+
+public final class TokenSet {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    public static final TokenSet EMPTY = new TokenSet(0L);
+
+    private final long mask;
+
+    private TokenSet(long mask) {
+        this.mask = mask;
+    }
+
+    private static long bit(TokenType type) {
+        return 1L << type.ordinal();
+    }
+
+    public static TokenSet of(TokenType... types) {
+        long mask = 0L;
+
+        for (TokenType type : types) {
+            mask |= bit(type);
+        }
+
+        return new TokenSet(mask);
+    }
+
+    public boolean contains(TokenType type) {
+        return type != null && (mask & bit(type)) != 0;
+    }
+
+    public TokenSet union(TokenSet other) {
+        return new TokenSet(mask | other.mask);
+    }
+
+    public TokenSet with(TokenType... types) {
+        return union(of(types));
+    }
+
+    public boolean isEmpty() {
+        return mask == 0L;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof TokenSet && ((TokenSet) other).mask == mask;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(mask);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+
+        for (TokenType type : TYPES) {
+            if (contains(type)) {
+                joiner.add(type.name());
+            }
+        }
+
+        return joiner.toString();
+    }
+
+    static {
+        if (TYPES.length > Long.SIZE) {
+            throw new ExceptionInInitializerError("TokenSet supports at most " + Long.SIZE + " token types");
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package viva.base.common;
+
+public interface TokenStream {
+    public boolean eos(int lookahead);
+
+    public TokenType type(int lookahead);
+
+    public Token read(int lookahead);
+
+    public int offset(int lookahead);
+
+    public int length(int lookahead);
+
+    public void next();
+
+    public Source getSource();
+}
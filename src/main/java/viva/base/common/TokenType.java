@@ -6,34 +6,36 @@ import lombok.Getter;
 @AllArgsConstructor
 @Getter
 public enum TokenType {
-    LBRACE, RBRACE,
-    LPAREN, RPAREN,
-    LBRACK, RBRACK,
+    LBRACE("{"), RBRACE("}"),
+    LPAREN("("), RPAREN(")"),
+    LBRACK("["), RBRACK("]"),
         
-    DOT, COLON, SEMI, COMMA,
+    DOT("."), COLON(":"), SEMI(";"), COMMA(","),
 
-    IDENTIFIER,
+    IDENTIFIER(null),
 
-    PROC, CLASS, STRUCT,
+    PROC("proc"), CLASS("class"), STRUCT("struct"),
 
-    LET,
+    LET("let"),
 
-    RETURN, CONTINUE, BREAK,
+    RETURN("return"), CONTINUE("continue"), BREAK("break"),
         
-    WHILE, UNTIL, DO,
+    WHILE("while"), UNTIL("until"), DO("do"),
         
-    IF, ELIF, ELSE,
+    IF("if"), ELIF("elif"), ELSE("else"),
 
-    INTEGER_LITERAL, FLOAT_LITERAL,
-    BOOLEAN_LITERAL,
-    CHARACTER_LITERAL, STRING_LITERAL,
+    INTEGER_LITERAL(null), FLOAT_LITERAL(null),
+    BOOLEAN_LITERAL(null),
+    CHARACTER_LITERAL(null), STRING_LITERAL(null),
 
-    ASSIGN, WIDE_ARROW, THIN_ARROW,
+    ASSIGN("="), WIDE_ARROW("=>"), THIN_ARROW("->"),
 
-    EQUAL, NOT_EQUAL, LESS_THAN, MORE_THAN, LESS_THAN_EQUAL, MORE_THAN_EQUAL,
+    EQUAL("=="), NOT_EQUAL("!="), LESS_THAN("<"), MORE_THAN(">"), LESS_THAN_EQUAL("<="), MORE_THAN_EQUAL(">="),
 
-    ADD, SUB, MUL, DIV,
+    ADD("+"), SUB("-"), MUL("*"), DIV("/"),
         
-    LOGICAL_NOT, LOGICAL_AND, LOGICAL_XOR, LOGICAL_OR,
-    BITWISE_NOT, BITWISE_AND, BITWISE_XOR, BITWISE_OR;
+    LOGICAL_NOT("not"), LOGICAL_AND("and"), LOGICAL_XOR("xor"), LOGICAL_OR("or"),
+    BITWISE_NOT("~"), BITWISE_AND("&"), BITWISE_XOR("^"), BITWISE_OR("|");
+
+    private final String text;
 }
@@ -0,0 +1,1310 @@
+package viva.base.common.ast;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import lombok.Getter;
+import viva.base.common.Environment;
+import viva.base.common.Source;
+import viva.base.common.Symbols;
+import viva.base.common.Token;
+import viva.base.common.TokenBuffer;
+import viva.utils.Couple;
+
+public class Arena {
+    public static final int FORMAT = 1;
+
+    private static final int MAGIC = 0x56415354;
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private static final byte NULL_OBJECT = 0;
+    private static final byte STRING_OBJECT = 1;
+    private static final byte ENV_OBJECT = 2;
+    private static final byte INTEGER_OBJECT = 3;
+    private static final byte LONG_OBJECT = 4;
+    private static final byte DOUBLE_OBJECT = 5;
+    private static final byte BOOLEAN_OBJECT = 6;
+
+    private static final int SLOTS = 3;
+    private static final int NULL = -1;
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private final TokenBuffer tokens;
+    private final Encoder encoder;
+
+    private ByteBuffer kinds;
+    private IntBuffer slots;
+    private int size;
+
+    private IntBuffer pool;
+    private int pooled;
+
+    private Object[] objects;
+    private int stored;
+
+    private int[] body;
+    private int statements;
+
+    @Getter
+    private int root;
+
+    public Arena(TokenBuffer tokens) {
+        this.tokens = tokens;
+        this.encoder = new Encoder();
+
+        this.kinds = ByteBuffer.allocate(DEFAULT_CAPACITY);
+        this.slots = IntBuffer.allocate(DEFAULT_CAPACITY * SLOTS);
+        this.size = 0;
+
+        this.pool = IntBuffer.allocate(DEFAULT_CAPACITY);
+        this.pooled = 0;
+
+        this.objects = new Object[DEFAULT_CAPACITY];
+        this.stored = 0;
+
+        this.body = new int[DEFAULT_CAPACITY];
+        this.statements = 0;
+
+        this.root = allocate(Kind.PROGRAM);
+    }
+
+    private Arena(TokenBuffer tokens, ByteBuffer kinds, IntBuffer slots, IntBuffer pool, Object[] objects, int root) {
+        this.tokens = tokens;
+        this.encoder = new Encoder();
+
+        this.kinds = kinds;
+        this.slots = slots;
+        this.size = kinds.limit();
+
+        this.pool = pool;
+        this.pooled = pool.limit();
+
+        this.objects = objects;
+        this.stored = objects.length;
+
+        this.body = null;
+        this.statements = 0;
+
+        this.root = root;
+    }
+
+    public static Arena of(Node.Program program, TokenBuffer tokens) {
+        Arena arena = new Arena(tokens);
+
+        for (Node.Stmt stmt : program.body) {
+            arena.add(stmt);
+        }
+
+        arena.close(program.env);
+
+        return arena;
+    }
+
+    public void add(Node.Stmt stmt) {
+        if (statements == body.length) {
+            body = Arrays.copyOf(body, statements * 2);
+        }
+
+        body[statements++] = encode(stmt);
+    }
+
+    public void close(Environment env) {
+        int list = reserve(statements + 1);
+
+        entry(list, statements);
+
+        for (int i = 0; i < statements; i++) {
+            entry(list + 1 + i, body[i]);
+        }
+
+        set(root, 0, store(env));
+        set(root, 1, list);
+
+        body = null;
+        statements = 0;
+
+        trim();
+    }
+
+    private void trim() {
+        kinds = ByteBuffer.allocate(size).put(kinds.position(0).limit(size)).position(0);
+        slots = IntBuffer.allocate(size * SLOTS).put(slots.position(0).limit(size * SLOTS)).position(0);
+
+        pool = IntBuffer.allocate(pooled).put(pool.position(0).limit(pooled)).position(0);
+        objects = Arrays.copyOf(objects, stored);
+    }
+
+    private static int align(int length) {
+        return (length + Integer.BYTES - 1) & -Integer.BYTES;
+    }
+
+    private static boolean isStorable(Object value) {
+        return value == null
+            || value instanceof String
+            || value instanceof Integer
+            || value instanceof Long
+            || value instanceof Double
+            || value instanceof Boolean;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+
+        in.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL_OBJECT);
+        } else if (value instanceof String) {
+            out.writeByte(STRING_OBJECT);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER_OBJECT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG_OBJECT);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE_OBJECT);
+            out.writeDouble((Double) value);
+        } else {
+            out.writeByte(BOOLEAN_OBJECT);
+            out.writeBoolean((Boolean) value);
+        }
+    }
+
+    private static Object readValue(ByteBuffer in) throws IOException {
+        byte tag = in.get();
+
+        switch (tag) {
+            case NULL_OBJECT: {
+                return null;
+            } case STRING_OBJECT: {
+                return readString(in);
+            } case INTEGER_OBJECT: {
+                return in.getInt();
+            } case LONG_OBJECT: {
+                return in.getLong();
+            } case DOUBLE_OBJECT: {
+                return in.getDouble();
+            } case BOOLEAN_OBJECT: {
+                return in.get() != 0;
+            } default: {
+                throw new IOException("Unknown value tag " + tag);
+            }
+        }
+    }
+
+    public boolean write(Path path) throws IOException {
+        List<Object> table = new ArrayList<>(Arrays.asList(objects).subList(0, stored));
+        Map<Object, Integer> indices = new IdentityHashMap<>();
+
+        for (int i = 0; i < table.size(); i++) {
+            indices.putIfAbsent(table.get(i), i);
+        }
+
+        for (int i = 0; i < table.size(); i++) {
+            Object object = table.get(i);
+
+            if (object instanceof Environment) {
+                Environment env = (Environment) object;
+
+                for (int symbol : env.symbols()) {
+                    if (!isStorable(env.get(symbol))) {
+                        return false;
+                    }
+                }
+
+                if (env.getParent() != null && !indices.containsKey(env.getParent())) {
+                    indices.put(env.getParent(), table.size());
+                    table.add(env.getParent());
+                }
+            } else if (object != null && !(object instanceof String)) {
+                return false;
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeInt(tokens.getSource().length());
+            out.writeInt(tokens.size());
+            out.writeInt(size);
+            out.writeInt(pooled);
+            out.writeInt(table.size());
+            out.writeInt(root);
+
+            for (int i = 0; i < tokens.size(); i++) {
+                out.writeByte(tokens.type(i).ordinal());
+            }
+            out.write(new byte[align(tokens.size()) - tokens.size()]);
+
+            for (int i = 0; i < tokens.size(); i++) {
+                out.writeInt(tokens.offset(i));
+            }
+            for (int i = 0; i < tokens.size(); i++) {
+                out.writeInt(tokens.length(i));
+            }
+
+            for (int i = 0; i < size; i++) {
+                out.writeByte(kinds.get(i));
+            }
+            out.write(new byte[align(size) - size]);
+
+            for (int i = 0; i < size * SLOTS; i++) {
+                out.writeInt(slots.get(i));
+            }
+            for (int i = 0; i < pooled; i++) {
+                out.writeInt(pool.get(i));
+            }
+
+            for (Object object : table) {
+                if (object instanceof Environment) {
+                    Environment env = (Environment) object;
+
+                    out.writeByte(ENV_OBJECT);
+                    out.writeInt(env.getParent() == null ? NULL : indices.get(env.getParent()));
+                    out.writeInt(env.size());
+
+                    for (int symbol : env.symbols()) {
+                        writeString(out, Symbols.GLOBAL.get(symbol));
+                        writeValue(out, env.get(symbol));
+                    }
+                } else {
+                    writeValue(out, object);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private static ByteBuffer slice(ByteBuffer map, int position, int length) throws IOException {
+        if (position < 0 || length < 0 || position + length > map.limit()) {
+            throw new IOException("Truncated AST file");
+        }
+
+        return map.duplicate().position(position).limit(position + length).slice();
+    }
+
+    private static Object[] readObjects(ByteBuffer in, int count) throws IOException {
+        Object[] objects = new Object[count];
+
+        int[] parents = new int[count];
+        List<Map<String, Object>> variables = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            parents[i] = NULL;
+            variables.add(null);
+
+            if (in.get(in.position()) == ENV_OBJECT) {
+                in.get();
+
+                parents[i] = in.getInt();
+
+                Map<String, Object> scope = new LinkedHashMap<>();
+
+                for (int j = in.getInt(); j > 0; j--) {
+                    scope.put(readString(in), readValue(in));
+                }
+
+                variables.set(i, scope);
+            } else {
+                objects[i] = readValue(in);
+            }
+        }
+
+        int[] chain = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            if (variables.get(i) == null || objects[i] != null) {
+                continue;
+            }
+
+            int depth = 0;
+
+            for (int j = i; j != NULL && objects[j] == null; j = parents[j]) {
+                if (depth == count || variables.get(j) == null) {
+                    throw new IOException("Malformed scope chain");
+                }
+
+                chain[depth++] = j;
+            }
+
+            while (depth > 0) {
+                int j = chain[--depth];
+
+                Environment env = new Environment(parents[j] == NULL ? null : (Environment) objects[parents[j]]);
+
+                variables.get(j).forEach(env::set);
+
+                objects[j] = env;
+            }
+        }
+
+        return objects;
+    }
+
+    public static Arena read(Path path, Source source) throws IOException {
+        ByteBuffer map;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("AST file " + path + " is larger than " + Integer.MAX_VALUE + " bytes");
+            }
+
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (map.limit() < 8 * Integer.BYTES || map.getInt(0) != MAGIC || map.getInt(4) != FORMAT) {
+                throw new IOException("Unsupported AST file " + path);
+            }
+
+            if (map.getInt(8) != source.length()) {
+                throw new IOException("AST file " + path + " does not match its source");
+            }
+
+            int count = map.getInt(12);
+            int size = map.getInt(16);
+            int pooled = map.getInt(20);
+            int stored = map.getInt(24);
+            int root = map.getInt(28);
+
+            int position = 8 * Integer.BYTES;
+
+            ByteBuffer types = slice(map, position, count);
+            position += align(count);
+
+            IntBuffer offsets = slice(map, position, count * Integer.BYTES).asIntBuffer();
+            position += count * Integer.BYTES;
+
+            IntBuffer lengths = slice(map, position, count * Integer.BYTES).asIntBuffer();
+            position += count * Integer.BYTES;
+
+            ByteBuffer kinds = slice(map, position, size);
+            position += align(size);
+
+            IntBuffer slots = slice(map, position, size * SLOTS * Integer.BYTES).asIntBuffer();
+            position += size * SLOTS * Integer.BYTES;
+
+            IntBuffer pool = slice(map, position, pooled * Integer.BYTES).asIntBuffer();
+            position += pooled * Integer.BYTES;
+
+            Object[] objects = readObjects(slice(map, position, map.limit() - position), stored);
+
+            return new Arena(new TokenBuffer(source, types, offsets, lengths), kinds, slots, pool, objects, root);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | ClassCastException e) {
+            throw new IOException("Malformed AST file " + path, e);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Kind kind(int index) {
+        return KINDS[kinds.get(index)];
+    }
+
+    public int slot(int index, int slot) {
+        return slots.get(index * SLOTS + slot);
+    }
+
+    public <T> T accept(int index, NodeVisitor<T> visitor) {
+        return node(index).accept(visitor);
+    }
+
+    public static int index(Node node) {
+        return node instanceof Indexed ? ((Indexed) node).index() : NULL;
+    }
+
+    public Node node(int index) {
+        if (index == NULL) {
+            return null;
+        }
+
+        int a = slots.get(index * SLOTS);
+        int b = slots.get(index * SLOTS + 1);
+        int c = slots.get(index * SLOTS + 2);
+
+        switch (KINDS[kinds.get(index)]) {
+            case PROGRAM: {
+                return new ProgramView(index, (Environment) objects[a], new Children<>(b));
+            } case BLOCK_STMT: {
+                return new BlockStmtView(index, (Environment) objects[a], new Children<>(b));
+            } case PROC_STMT: {
+                return new ProcStmtView(index, token(a), token(b), new Parameters(c), expr(entry(c + 1 + entry(c) * 2)));
+            } case TYPE_STMT: {
+                return new TypeStmtView(index, (String) objects[a], token(b), expr(c));
+            } case VARIABLE_STMT: {
+                return new VariableStmtView(index, token(a), token(b), expr(c));
+            } case RETURN_STMT: {
+                return new ReturnStmtView(index, expr(a));
+            } case CONTINUE_STMT: {
+                return new ContinueStmtView(index, token(a));
+            } case BREAK_STMT: {
+                return new BreakStmtView(index, token(a));
+            } case WHILE_STMT: {
+                return new WhileStmtView(index, expr(a), stmt(b));
+            } case UNTIL_STMT: {
+                return new UntilStmtView(index, expr(a), stmt(b));
+            } case IF_STMT: {
+                return new IfStmtView(index, expr(a), stmt(b), new Elifs<>(c), stmt(entry(c + 1 + entry(c) * 2)));
+            } case EXPR_STMT: {
+                return new ExprStmtView(index, expr(a));
+            } case BINARY_EXPR: {
+                return new BinaryExprView(index, expr(a), token(b), expr(c));
+            } case UNARY_EXPR: {
+                return new UnaryExprView(index, token(a), expr(b));
+            } case LITERAL_EXPR: {
+                return new LiteralExprView(index, token(a));
+            } case VARIABLE_EXPR: {
+                return new VariableExprView(index, token(a));
+            } case PROC_CALL_EXPR: {
+                return new ProcCallExprView(index, token(a), new Children<>(b));
+            } case ACCESS_EXPR: {
+                return new AccessExprView(index, token(a), expr(b));
+            } case REFERENCE_EXPR: {
+                return new ReferenceExprView(index, token(a), token(b));
+            } case BLOCK_EXPR: {
+                return new BlockExprView(index, (Environment) objects[a], new Children<>(b));
+            } case WHILE_EXPR: {
+                return new WhileExprView(index, expr(a), stmt(b));
+            } case UNTIL_EXPR: {
+                return new UntilExprView(index, expr(a), stmt(b));
+            } case IF_EXPR: {
+                return new IfExprView(index, expr(a), expr(b), new Elifs<>(c), expr(entry(c + 1 + entry(c) * 2)));
+            } case DEFERRED_EXPR: {
+                return (Node) objects[a];
+            } default: {
+                throw new IllegalStateException("Unknown node kind " + kinds.get(index));
+            }
+        }
+    }
+
+    private Node.Stmt stmt(int index) {
+        return (Node.Stmt) node(index);
+    }
+
+    private Node.Expr expr(int index) {
+        return (Node.Expr) node(index);
+    }
+
+    private Token token(int reference) {
+        if (reference == NULL) {
+            return null;
+        } else if (reference >= 0) {
+            return tokens.get(reference);
+        } else {
+            return (Token) objects[-2 - reference];
+        }
+    }
+
+    private int allocate(Kind kind) {
+        if (size == kinds.capacity()) {
+            kinds = ByteBuffer.allocate(size * 2).put(kinds.position(0).limit(size));
+            slots = IntBuffer.allocate(size * 2 * SLOTS).put(slots.position(0).limit(size * SLOTS));
+        }
+
+        kinds.put(size, (byte) kind.ordinal());
+
+        for (int i = 0; i < SLOTS; i++) {
+            slots.put(size * SLOTS + i, NULL);
+        }
+
+        return size++;
+    }
+
+    private void set(int index, int slot, int value) {
+        slots.put(index * SLOTS + slot, value);
+    }
+
+    private int entry(int index) {
+        return pool.get(index);
+    }
+
+    private void entry(int index, int value) {
+        pool.put(index, value);
+    }
+
+    private int reserve(int length) {
+        if (pooled + length > pool.capacity()) {
+            int capacity = pool.capacity() * 2;
+
+            while (pooled + length > capacity) {
+                capacity *= 2;
+            }
+
+            pool = IntBuffer.allocate(capacity).put(pool.position(0).limit(pooled));
+        }
+
+        int start = pooled;
+
+        pooled += length;
+
+        return start;
+    }
+
+    private int store(Object object) {
+        if (stored == objects.length) {
+            objects = Arrays.copyOf(objects, stored * 2);
+        }
+
+        objects[stored] = object;
+
+        return stored++;
+    }
+
+    private int token(Token token) {
+        if (token == null) {
+            return NULL;
+        }
+
+        int index = tokens.indexAt(token.offset);
+
+        if (index < tokens.size() && tokens.offset(index) == token.offset && tokens.type(index) == token.type) {
+            return index;
+        }
+
+        return -2 - store(token);
+    }
+
+    private int encode(Node node) {
+        if (node == null) {
+            return NULL;
+        } else if (node instanceof Node.Expr.Deferred && !((Node.Expr.Deferred) node).isParsed()) {
+            int index = allocate(Kind.DEFERRED_EXPR);
+
+            set(index, 0, store(node));
+
+            return index;
+        } else {
+            return node.accept(encoder);
+        }
+    }
+
+    private int encode(Kind kind, Environment env, List<? extends Node> body) {
+        int index = allocate(kind);
+
+        set(index, 0, store(env));
+        set(index, 1, encode(body));
+
+        return index;
+    }
+
+    private int encode(List<? extends Node> nodes) {
+        int list = reserve(nodes.size() + 1);
+
+        entry(list, nodes.size());
+
+        for (int i = 0; i < nodes.size(); i++) {
+            int child = encode(nodes.get(i));
+
+            entry(list + 1 + i, child);
+        }
+
+        return list;
+    }
+
+    private int encode(List<? extends Couple<? extends Node, ? extends Node>> elifs, Node elseBody) {
+        int list = reserve(elifs.size() * 2 + 2);
+
+        entry(list, elifs.size());
+
+        for (int i = 0; i < elifs.size(); i++) {
+            int condition = encode(elifs.get(i).a);
+            int body = encode(elifs.get(i).b);
+
+            entry(list + 1 + i * 2, condition);
+            entry(list + 2 + i * 2, body);
+        }
+
+        int last = encode(elseBody);
+
+        entry(list + 1 + elifs.size() * 2, last);
+
+        return list;
+    }
+
+    private int encode(Kind kind, Node a, Node b) {
+        int index = allocate(kind);
+
+        set(index, 0, encode(a));
+        set(index, 1, encode(b));
+
+        return index;
+    }
+
+    public enum Kind {
+        PROGRAM,
+        BLOCK_STMT,
+        PROC_STMT,
+        TYPE_STMT,
+        VARIABLE_STMT,
+        RETURN_STMT,
+        CONTINUE_STMT,
+        BREAK_STMT,
+        WHILE_STMT,
+        UNTIL_STMT,
+        IF_STMT,
+        EXPR_STMT,
+        BINARY_EXPR,
+        UNARY_EXPR,
+        LITERAL_EXPR,
+        VARIABLE_EXPR,
+        PROC_CALL_EXPR,
+        ACCESS_EXPR,
+        REFERENCE_EXPR,
+        BLOCK_EXPR,
+        WHILE_EXPR,
+        UNTIL_EXPR,
+        IF_EXPR,
+        DEFERRED_EXPR
+    }
+
+    private interface Indexed {
+        public int index();
+    }
+
+    private class Children<T extends Node> extends AbstractList<T> {
+        private final int list;
+
+        private Children(int list) {
+            this.list = list;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+            }
+
+            return (T) node(entry(list + 1 + index));
+        }
+
+        @Override
+        public int size() {
+            return entry(list);
+        }
+    }
+
+    private class Elifs<A extends Node, B extends Node> extends AbstractList<Couple<A, B>> {
+        private final int list;
+
+        private Elifs(int list) {
+            this.list = list;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Couple<A, B> get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+            }
+
+            return new Couple<>((A) node(entry(list + 1 + index * 2)), (B) node(entry(list + 2 + index * 2)));
+        }
+
+        @Override
+        public int size() {
+            return entry(list);
+        }
+    }
+
+    private class Parameters extends AbstractMap<Token, Token> {
+        private final int list;
+
+        private Parameters(int list) {
+            this.list = list;
+        }
+
+        @Override
+        public Set<Map.Entry<Token, Token>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<Token, Token>> iterator() {
+                    return new Iterator<>() {
+                        private int next = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < entry(list);
+                        }
+
+                        @Override
+                        public Map.Entry<Token, Token> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+
+                            int key = entry(list + 1 + next * 2);
+                            int value = entry(list + 2 + next * 2);
+
+                            next++;
+
+                            return new SimpleImmutableEntry<>(token(key), token(value));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return entry(list);
+                }
+            };
+        }
+    }
+
+    private class Encoder implements NodeVisitor<Integer> {
+        @Override
+        public Integer visitProgram(Node.Program node) {
+            throw new IllegalArgumentException("Cannot encode " + node);
+        }
+
+        @Override
+        public Integer visitStmt(Node.Stmt node) {
+            throw new IllegalArgumentException("Cannot encode " + node);
+        }
+
+        @Override
+        public Integer visitBlockStmt(Node.Stmt.Block node) {
+            return encode(Kind.BLOCK_STMT, node.env, node.body);
+        }
+
+        @Override
+        public Integer visitDefineStmt(Node.Stmt.Define node) {
+            throw new IllegalArgumentException("Cannot encode " + node);
+        }
+
+        @Override
+        public Integer visitDefineProcStmt(Node.Stmt.Define.Proc node) {
+            int index = allocate(Kind.PROC_STMT);
+            int list = reserve(node.parameters.size() * 2 + 2);
+
+            set(index, 0, token(node.identifier));
+            set(index, 1, token(node.returnType));
+            set(index, 2, list);
+
+            entry(list, node.parameters.size());
+
+            int i = 0;
+
+            for (Map.Entry<Token, Token> parameter : node.parameters.entrySet()) {
+                int key = token(parameter.getKey());
+                int value = token(parameter.getValue());
+
+                entry(list + 1 + i * 2, key);
+                entry(list + 2 + i * 2, value);
+
+                i++;
+            }
+
+            int body = encode(node.body);
+
+            entry(list + 1 + i * 2, body);
+
+            return index;
+        }
+
+        @Override
+        public Integer visitDefineTypeStmt(Node.Stmt.Define.Type node) {
+            int index = allocate(Kind.TYPE_STMT);
+
+            set(index, 0, store(node.kind));
+            set(index, 1, token(node.identifier));
+            set(index, 2, encode(node.body));
+
+            return index;
+        }
+
+        @Override
+        public Integer visitDefineVariableStmt(Node.Stmt.Define.Variable node) {
+            int index = allocate(Kind.VARIABLE_STMT);
+
+            set(index, 0, token(node.type));
+            set(index, 1, token(node.identifier));
+            set(index, 2, encode(node.value));
+
+            return index;
+        }
+
+        @Override
+        public Integer visitReturnStmt(Node.Stmt.Return node) {
+            return encode(Kind.RETURN_STMT, node.value, null);
+        }
+
+        @Override
+        public Integer visitContinueStmt(Node.Stmt.Continue node) {
+            int index = allocate(Kind.CONTINUE_STMT);
+
+            set(index, 0, token(node.identifier));
+
+            return index;
+        }
+
+        @Override
+        public Integer visitBreakStmt(Node.Stmt.Break node) {
+            int index = allocate(Kind.BREAK_STMT);
+
+            set(index, 0, token(node.identifier));
+
+            return index;
+        }
+
+        @Override
+        public Integer visitWhileStmt(Node.Stmt.While node) {
+            return encode(Kind.WHILE_STMT, node.condition, node.body);
+        }
+
+        @Override
+        public Integer visitUntilStmt(Node.Stmt.Until node) {
+            return encode(Kind.UNTIL_STMT, node.condition, node.body);
+        }
+
+        @Override
+        public Integer visitIfStmt(Node.Stmt.If node) {
+            int index = encode(Kind.IF_STMT, node.condition, node.body);
+
+            set(index, 2, encode(node.elifs, node.elseBody));
+
+            return index;
+        }
+
+        @Override
+        public Integer visitExprStmt(Node.Stmt.Expr node) {
+            return encode(Kind.EXPR_STMT, node.value, null);
+        }
+
+        @Override
+        public Integer visitExpr(Node.Expr node) {
+            throw new IllegalArgumentException("Cannot encode " + node);
+        }
+
+        @Override
+        public Integer visitBinaryExpr(Node.Expr.Binary node) {
+            int index = allocate(Kind.BINARY_EXPR);
+
+            set(index, 0, encode(node.operandLeft));
+            set(index, 1, token(node.operator));
+            set(index, 2, encode(node.operandRight));
+
+            return index;
+        }
+
+        @Override
+        public Integer visitUnaryExpr(Node.Expr.Unary node) {
+            int index = allocate(Kind.UNARY_EXPR);
+
+            set(index, 0, token(node.operator));
+            set(index, 1, encode(node.operandRight));
+
+            return index;
+        }
+
+        @Override
+        public Integer visitLiteralExpr(Node.Expr.Literal node) {
+            int index = allocate(Kind.LITERAL_EXPR);
+
+            set(index, 0, token(node.value));
+
+            return index;
+        }
+
+        @Override
+        public Integer visitVariableExpr(Node.Expr.Variable node) {
+            int index = allocate(Kind.VARIABLE_EXPR);
+
+            set(index, 0, token(node.identifier));
+
+            return index;
+        }
+
+        @Override
+        public Integer visitProcCallExpr(Node.Expr.ProcCall node) {
+            int index = allocate(Kind.PROC_CALL_EXPR);
+
+            set(index, 0, token(node.identifier));
+            set(index, 1, encode(node.arguments));
+
+            return index;
+        }
+
+        @Override
+        public Integer visitAccessExpr(Node.Expr.Access node) {
+            int index = allocate(Kind.ACCESS_EXPR);
+
+            set(index, 0, token(node.identifier));
+            set(index, 1, encode(node.index));
+
+            return index;
+        }
+
+        @Override
+        public Integer visitReferenceExpr(Node.Expr.Reference node) {
+            int index = allocate(Kind.REFERENCE_EXPR);
+
+            set(index, 0, token(node.variable));
+            set(index, 1, token(node.identifier));
+
+            return index;
+        }
+
+        @Override
+        public Integer visitBlockExpr(Node.Expr.Block node) {
+            return encode(Kind.BLOCK_EXPR, node.env, node.body);
+        }
+
+        @Override
+        public Integer visitWhileExpr(Node.Expr.While node) {
+            return encode(Kind.WHILE_EXPR, node.condition, node.body);
+        }
+
+        @Override
+        public Integer visitUntilExpr(Node.Expr.Until node) {
+            return encode(Kind.UNTIL_EXPR, node.condition, node.body);
+        }
+
+        @Override
+        public Integer visitIfExpr(Node.Expr.If node) {
+            int index = encode(Kind.IF_EXPR, node.condition, node.body);
+
+            set(index, 2, encode(node.elifs, node.elseBody));
+
+            return index;
+        }
+    }
+
+    private static class ProgramView extends Node.Program implements Indexed {
+        private final int position;
+
+        private ProgramView(int position, Environment env, List<Node.Stmt> body) {
+            super(env, body);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class BlockStmtView extends Node.Stmt.Block implements Indexed {
+        private final int position;
+
+        private BlockStmtView(int position, Environment env, List<Node.Stmt> body) {
+            super(env, body);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class WhileStmtView extends Node.Stmt.While implements Indexed {
+        private final int position;
+
+        private WhileStmtView(int position, Node.Expr condition, Node.Stmt body) {
+            super(condition, body);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class UntilStmtView extends Node.Stmt.Until implements Indexed {
+        private final int position;
+
+        private UntilStmtView(int position, Node.Expr condition, Node.Stmt body) {
+            super(condition, body);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class IfStmtView extends Node.Stmt.If implements Indexed {
+        private final int position;
+
+        private IfStmtView(int position, Node.Expr condition, Node.Stmt body, List<Couple<Node.Expr, Node.Stmt>> elifs, Node.Stmt elseBody) {
+            super(condition, body, elifs, elseBody);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class ProcStmtView extends Node.Stmt.Define.Proc implements Indexed {
+        private final int position;
+
+        private ProcStmtView(int position, Token identifier, Token returnType, Map<Token, Token> parameters, Node.Expr body) {
+            super(identifier, returnType, parameters, body);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class TypeStmtView extends Node.Stmt.Define.Type implements Indexed {
+        private final int position;
+
+        private TypeStmtView(int position, String kind, Token identifier, Node.Expr body) {
+            super(kind, identifier, body);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class VariableStmtView extends Node.Stmt.Define.Variable implements Indexed {
+        private final int position;
+
+        private VariableStmtView(int position, Token type, Token identifier, Node.Expr value) {
+            super(type, identifier, value);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class ReturnStmtView extends Node.Stmt.Return implements Indexed {
+        private final int position;
+
+        private ReturnStmtView(int position, Node.Expr value) {
+            super(value);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class ContinueStmtView extends Node.Stmt.Continue implements Indexed {
+        private final int position;
+
+        private ContinueStmtView(int position, Token identifier) {
+            super(identifier);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class BreakStmtView extends Node.Stmt.Break implements Indexed {
+        private final int position;
+
+        private BreakStmtView(int position, Token identifier) {
+            super(identifier);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class ExprStmtView extends Node.Stmt.Expr implements Indexed {
+        private final int position;
+
+        private ExprStmtView(int position, Node.Expr value) {
+            super(value);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class BinaryExprView extends Node.Expr.Binary implements Indexed {
+        private final int position;
+
+        private BinaryExprView(int position, Node.Expr operandLeft, Token operator, Node.Expr operandRight) {
+            super(operandLeft, operator, operandRight);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class UnaryExprView extends Node.Expr.Unary implements Indexed {
+        private final int position;
+
+        private UnaryExprView(int position, Token operator, Node.Expr operandRight) {
+            super(operator, operandRight);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class LiteralExprView extends Node.Expr.Literal implements Indexed {
+        private final int position;
+
+        private LiteralExprView(int position, Token value) {
+            super(value);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class VariableExprView extends Node.Expr.Variable implements Indexed {
+        private final int position;
+
+        private VariableExprView(int position, Token identifier) {
+            super(identifier);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class ProcCallExprView extends Node.Expr.ProcCall implements Indexed {
+        private final int position;
+
+        private ProcCallExprView(int position, Token identifier, List<Node.Expr> arguments) {
+            super(identifier, arguments);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class AccessExprView extends Node.Expr.Access implements Indexed {
+        private final int position;
+
+        private AccessExprView(int position, Token identifier, Node.Expr index) {
+            super(identifier, index);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class ReferenceExprView extends Node.Expr.Reference implements Indexed {
+        private final int position;
+
+        private ReferenceExprView(int position, Token variable, Token identifier) {
+            super(variable, identifier);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class WhileExprView extends Node.Expr.While implements Indexed {
+        private final int position;
+
+        private WhileExprView(int position, Node.Expr condition, Node.Stmt body) {
+            super(condition, body);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class UntilExprView extends Node.Expr.Until implements Indexed {
+        private final int position;
+
+        private UntilExprView(int position, Node.Expr condition, Node.Stmt body) {
+            super(condition, body);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class IfExprView extends Node.Expr.If implements Indexed {
+        private final int position;
+
+        private IfExprView(int position, Node.Expr condition, Node.Expr body, List<Couple<Node.Expr, Node.Expr>> elifs, Node.Expr elseBody) {
+            super(condition, body, elifs, elseBody);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+
+    private static class BlockExprView extends Node.Expr.Block implements Indexed {
+        private final int position;
+
+        private BlockExprView(int position, Environment env, List<Node.Stmt> body) {
+            super(env, body);
+
+            this.position = position;
+        }
+
+        @Override
+        public int index() { return position; }
+    }
+}
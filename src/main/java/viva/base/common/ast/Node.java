@@ -2,6 +2,7 @@ package viva.base.common.ast;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import lombok.AllArgsConstructor;
 import lombok.ToString;
@@ -249,5 +250,41 @@ public interface Node {
             @Override 
             public <T> T accept(NodeVisitor<T> visitor) { return visitor.visitBlockExpr(this); }
         }
+
+        public static class Deferred implements Node.Expr {
+            private Supplier<Node.Expr> parser;
+
+            private volatile Node.Expr value;
+
+            public Deferred(Supplier<Node.Expr> parser) {
+                this.parser = parser;
+            }
+
+            public boolean isParsed() {
+                return value != null;
+            }
+
+            public Node.Expr get() {
+                Node.Expr result = value;
+
+                if (result == null) {
+                    synchronized (this) {
+                        result = value;
+
+                        if (result == null) {
+                            result = parser.get();
+
+                            value = result;
+                            parser = null;
+                        }
+                    }
+                }
+
+                return result;
+            }
+
+            @Override
+            public <T> T accept(NodeVisitor<T> visitor) { return get().accept(visitor); }
+        }
     }
 }
@@ -0,0 +1,175 @@
+package viva.base.common.ast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class Spans {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final List<Node> roots;
+    private final List<Map<Node, int[]>> locals;
+
+    private int[] starts;
+    private int[] ends;
+
+    private Map<Node, int[]> pending;
+
+    private Spans(List<Node> roots, List<Map<Node, int[]>> locals, int[] starts, int[] ends) {
+        this.roots = roots;
+        this.locals = locals;
+
+        this.starts = starts;
+        this.ends = ends;
+
+        this.pending = new IdentityHashMap<>();
+    }
+
+    public Spans() {
+        this(new ArrayList<>(), new ArrayList<>(), new int[DEFAULT_CAPACITY], new int[DEFAULT_CAPACITY]);
+    }
+
+    private void add(Node root, int start, int end, Map<Node, int[]> local) {
+        int index = roots.size();
+
+        if (index == starts.length) {
+            starts = Arrays.copyOf(starts, index * 2);
+            ends = Arrays.copyOf(ends, index * 2);
+        }
+
+        roots.add(root);
+        locals.add(local);
+
+        starts[index] = start;
+        ends[index] = end;
+    }
+
+    public void put(Node node, int start, int end) {
+        pending.put(node, new int[] { start, end });
+    }
+
+    public void root(Node root, int start, int end) {
+        Map<Node, int[]> local = new IdentityHashMap<>();
+
+        for (Map.Entry<Node, int[]> entry : pending.entrySet()) {
+            int[] span = entry.getValue();
+
+            local.put(entry.getKey(), new int[] { span[0] - start, span[1] - start });
+        }
+
+        pending = new IdentityHashMap<>();
+
+        add(root, start, end, local);
+    }
+
+    public void addAll(Spans other) {
+        for (int i = 0; i < other.size(); i++) {
+            add(other.roots.get(i), other.starts[i], other.ends[i], other.locals.get(i));
+        }
+    }
+
+    public int size() {
+        return roots.size();
+    }
+
+    public Node root(int index) {
+        return roots.get(index);
+    }
+
+    public int start(int index) {
+        return starts[index];
+    }
+
+    public int end(int index) {
+        return ends[index];
+    }
+
+    public boolean contains(int index, Node node) {
+        return locals.get(index).containsKey(node);
+    }
+
+    public int start(int index, Node node) {
+        return starts[index] + locals.get(index).get(node)[0];
+    }
+
+    public int end(int index, Node node) {
+        return starts[index] + locals.get(index).get(node)[1];
+    }
+
+    public void replace(int index, Spans other, int from, int delta) {
+        roots.set(index, other.roots.get(from));
+        locals.set(index, other.locals.get(from));
+
+        starts[index] = other.starts[from] + delta;
+        ends[index] = other.ends[from] + delta;
+    }
+
+    public Spans splice(int from, int to, Spans fragment, int delta) {
+        Spans result = new Spans();
+
+        for (int i = 0; i < from; i++) {
+            result.add(roots.get(i), starts[i], ends[i], locals.get(i));
+        }
+
+        result.addAll(fragment);
+
+        for (int i = to; i < roots.size(); i++) {
+            result.add(roots.get(i), starts[i] + delta, ends[i] + delta, locals.get(i));
+        }
+
+        return result;
+    }
+
+    public Spans rebuild(int index, Node root, Node leaf, Spans fragment, List<Node> moved, int delta) {
+        int start = starts[index];
+
+        Map<Node, int[]> old = locals.get(index);
+        Map<Node, int[]> local = new IdentityHashMap<>();
+
+        int[] region = old.get(leaf);
+
+        for (Map.Entry<Node, int[]> entry : old.entrySet()) {
+            int[] span = entry.getValue();
+
+            if (span[0] >= region[0] && span[1] <= region[1]) {
+                continue;
+            }
+
+            if (span[0] >= region[1]) {
+                local.put(entry.getKey(), new int[] { span[0] + delta, span[1] + delta });
+            } else if (span[1] <= region[0]) {
+                local.put(entry.getKey(), span);
+            } else {
+                local.put(entry.getKey(), new int[] { span[0], span[1] + delta });
+            }
+        }
+
+        for (int i = 0; i + 1 < moved.size(); i += 2) {
+            int[] span = local.remove(moved.get(i));
+
+            if (span != null) {
+                local.put(moved.get(i + 1), span);
+            }
+        }
+
+        for (int i = 0; i < fragment.size(); i++) {
+            int offset = fragment.starts[i] - start;
+
+            local.put(fragment.roots.get(i), new int[] { offset, fragment.ends[i] - start });
+
+            for (Map.Entry<Node, int[]> entry : fragment.locals.get(i).entrySet()) {
+                int[] span = entry.getValue();
+
+                local.put(entry.getKey(), new int[] { span[0] + offset, span[1] + offset });
+            }
+        }
+
+        Spans result = new Spans();
+
+        result.add(root, start, ends[index] + delta, local);
+
+        return splice(index, index + 1, result, delta);
+    }
+}
@@ -1,39 +1,63 @@
 package viva.base.lexers;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import lombok.Getter;
+import viva.base.common.Diagnostic;
+import viva.base.common.Diagnostics;
+import viva.base.common.Edit;
+import viva.base.common.Interner;
+import viva.base.common.Source;
 import viva.base.common.Token;
+import viva.base.common.TokenBuffer;
 import viva.base.common.TokenType;
+import viva.utils.KeywordTable;
 
 public abstract class AbstractLexer {
-    private final char[] input;
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    @Getter
+    private final Source input;
 
     private int index;
     private int start;
-    
-    protected int line;
-    protected int column;
+    private int limit;
 
     @Getter
-    private List<Token> output;
+    private TokenBuffer output;
 
-    protected AbstractLexer(String input) {
-        this.input = input.toCharArray();
+    @Getter
+    private Diagnostics diagnostics;
+
+    protected AbstractLexer(Source input, TokenBuffer output, Diagnostics diagnostics) {
+        this.input = input;
 
         this.index = 0;
         this.start = 0;
+        this.limit = input.length();
+
+        this.output = output;
 
-        this.line = 1;
-        this.column = 1;
+        this.diagnostics = diagnostics;
+    }
 
-        this.output = new ArrayList<>();
+    protected AbstractLexer(Source input, TokenBuffer output) {
+        this(input, output, new Diagnostics());
+    }
+
+    protected AbstractLexer(Source input) {
+        this(input, new TokenBuffer(input));
+    }
+
+    protected AbstractLexer(String input) {
+        this(Source.of(input));
     }
 
     protected boolean eos(int lookahead) {
-        return index + lookahead >= input.length;
+        return index + lookahead >= input.length();
     }
 
     protected boolean eos() {
@@ -48,7 +72,7 @@ public abstract class AbstractLexer {
         if (eos(lookahead)) {
             return '\0';
         } else {
-            return input[index + lookahead];
+            return input.at(index + lookahead);
         }
     }
 
@@ -58,60 +82,270 @@ public abstract class AbstractLexer {
 
     protected void nextColumn() {
         index++;
-        column++;
     }
 
     protected void nextLine() {
         index++;
-        line++;
-        column = 1;
     }
 
-    protected String lexeme() {
-        return new String(Arrays.copyOfRange(input, start, index));
+    protected void add(TokenType type) {
+        output.add(type, start, index - start);
     }
 
-    protected Token token(TokenType type, String lexeme, int columnOffset) {
-        return new Token(lexeme, type, line, column + columnOffset);
+    protected void advance(int mask) {
+        index = input.scan(index, mask);
     }
 
-    protected void add(Token token) {
-        output.add(token);
+    protected void skip() {
+        index = Math.min(index + input.width(index), input.length());
     }
 
     protected void addChars(TokenType type, int width) {
-        for (int i = 0; i < width; i++) {
-            nextColumn();
-        }
+        index += width;
             
-        add(token(type, lexeme(), -width));
+        add(type);
     }
 
     protected void addChars(TokenType type) {
         addChars(type, 1);
     }
 
-    protected abstract void addIdentifier(String lexeme);
+    protected abstract void addIdentifier();
 
-    protected void addIdentifier() {
-        addIdentifier(lexeme());
-    }
+    protected void addIdentifier(KeywordTable keywords) {
+        TokenType type = keywords.lookup(input, start, index);
 
-    protected void addLiteral(TokenType type, String lexeme) {
-        add(token(type, lexeme, -lexeme.length()));
+        if (type == null) {
+            output.add(TokenType.IDENTIFIER, start, index - start, output.getInterner().intern(input, start, index));
+        } else {
+            add(type);
+        }
     }
 
     protected void addLiteral(TokenType type) {
-        addLiteral(type, lexeme());
+        add(type);
     }
 
     protected void error(int lookahead) {
-        System.out.printf("[%s:%s] Unexpected character '%s'%n", line, column, read(lookahead));
+        int offset = index + lookahead;
+        int width = eos(lookahead) ? 0 : Math.min(input.width(offset), input.length() - offset);
+
+        diagnostics.error(input, index, Math.max(width, 1), String.format("Unexpected character '%s'",
+            width == 0 ? "\0" : input.text(offset, offset + width)));
     }
 
     protected void error() {
         error(0);
     }
 
-    public abstract void tokenize();
+    protected abstract void scan();
+
+    protected abstract AbstractLexer fork(Source input, TokenBuffer output, Diagnostics diagnostics);
+
+    public Token nextToken() {
+        int size = output.size();
+
+        while (output.size() == size && !eos() && index < limit && !diagnostics.isFull()) {
+            reset();
+            scan();
+        }
+
+        if (output.size() == size) {
+            return null;
+        }
+
+        Token token = output.get(size);
+
+        output.truncate(size);
+
+        return token;
+    }
+
+    public void tokenize() {
+        while (!eos() && index < limit && !diagnostics.isFull()) {
+            reset();
+            scan();
+        }
+    }
+
+    private List<Integer> split(int chunkSize) {
+        List<Integer> bounds = new ArrayList<>();
+
+        bounds.add(index);
+
+        int bound = index + chunkSize;
+
+        while (bound < limit) {
+            while (bound < limit && input.at(bound - 1) != '\n') {
+                bound++;
+            }
+
+            if (bound < limit) {
+                bounds.add(bound);
+            }
+
+            bound += chunkSize;
+        }
+
+        bounds.add(limit);
+
+        return bounds;
+    }
+
+    public void tokenize(ForkJoinPool pool, int chunkSize) {
+        List<Integer> bounds = split(chunkSize);
+
+        if (bounds.size() <= 2) {
+            tokenize();
+            return;
+        }
+
+        List<ForkJoinTask<AbstractLexer>> chunks = new ArrayList<>();
+
+        for (int i = 0; i < bounds.size() - 1; i++) {
+            AbstractLexer chunk = fork(input,
+                new TokenBuffer(input, new Interner(), TokenBuffer.DEFAULT_CAPACITY, output.isDirect()),
+                new Diagnostics(diagnostics.getMaxErrors()));
+
+            chunk.index = bounds.get(i);
+            chunk.limit = bounds.get(i + 1);
+
+            chunks.add(pool.submit(() -> {
+                chunk.tokenize();
+                return chunk;
+            }));
+        }
+
+        int end = limit;
+
+        for (int i = 0; i < chunks.size(); i++) {
+            if (diagnostics.isFull()) {
+                chunks.get(i).cancel(false);
+                continue;
+            }
+
+            AbstractLexer chunk = chunks.get(i).join();
+
+            if (index != bounds.get(i) || diagnostics.getErrors() + chunk.diagnostics.getErrors() >= diagnostics.getMaxErrors()) {
+                limit = bounds.get(i + 1);
+                tokenize();
+                continue;
+            }
+
+            output.append(chunk.output);
+
+            diagnostics.addAll(chunk.diagnostics);
+
+            index = chunk.index;
+        }
+
+        limit = end;
+    }
+
+    public void tokenize(ForkJoinPool pool) {
+        tokenize(pool, DEFAULT_CHUNK_SIZE);
+    }
+
+    public AbstractLexer relex(Edit edit) {
+        Source source = input.splice(edit.offset, edit.deleted, edit.inserted);
+
+        int delta = source.length() - input.length();
+        int editEnd = edit.offset + edit.deleted;
+        int insertEnd = editEnd + delta;
+
+        TokenBuffer previous = output;
+        TokenBuffer next = new TokenBuffer(source, previous.getInterner(), Math.max(previous.size(), TokenBuffer.DEFAULT_CAPACITY), previous.isDirect());
+
+        AbstractLexer lexer = fork(source, next, new Diagnostics(diagnostics.getMaxErrors()));
+
+        if (diagnostics.isFull()) {
+            lexer.tokenize();
+
+            return lexer;
+        }
+
+        int low = 0;
+        int high = previous.size();
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+
+            if (previous.offset(mid) + previous.length(mid) < edit.offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        int restart = Math.max(low - 1, 0);
+
+        next.append(previous, 0, restart, 0);
+
+        if (restart > 0) {
+            lexer.index = previous.offset(restart);
+        }
+
+        List<Diagnostic> entries = diagnostics.getEntries();
+
+        int carried = 0;
+
+        while (carried < entries.size() && entries.get(carried).offset < lexer.index) {
+            carry(lexer.diagnostics, entries.get(carried++), source, 0);
+        }
+
+        int old = restart;
+
+        while (!lexer.eos()) {
+            int size = next.size();
+
+            lexer.reset();
+            lexer.scan();
+
+            if (lexer.diagnostics.isFull()) {
+                break;
+            }
+
+            if (next.size() == size || next.offset(size) < insertEnd) {
+                continue;
+            }
+
+            int offset = next.offset(size);
+
+            while (old < previous.size() && previous.offset(old) + delta < offset) {
+                old++;
+            }
+
+            if (old < previous.size()
+                && previous.offset(old) >= editEnd
+                && previous.offset(old) + delta == offset
+                && previous.type(old) == next.type(size)
+                && previous.length(old) == next.length(size)) {
+                next.append(previous, old + 1, previous.size(), delta);
+
+                for (Diagnostic diagnostic : entries) {
+                    if (diagnostic.offset >= previous.offset(old)) {
+                        carry(lexer.diagnostics, diagnostic, source, delta);
+                    }
+                }
+
+                if (lexer.diagnostics.isFull()) {
+                    lexer = fork(source, new TokenBuffer(source, previous.getInterner(), Math.max(next.size(), TokenBuffer.DEFAULT_CAPACITY), previous.isDirect()),
+                        new Diagnostics(diagnostics.getMaxErrors()));
+
+                    lexer.tokenize();
+
+                    return lexer;
+                }
+
+                lexer.index = source.length();
+                break;
+            }
+        }
+
+        return lexer;
+    }
+
+    private static void carry(Diagnostics diagnostics, Diagnostic diagnostic, Source source, int delta) {
+        diagnostics.report(diagnostic.severity, source, diagnostic.offset + delta, diagnostic.length, diagnostic.message);
+    }
 }
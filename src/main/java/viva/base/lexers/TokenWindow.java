@@ -0,0 +1,116 @@
+package viva.base.lexers;
+
+import viva.base.common.Source;
+import viva.base.common.Token;
+import viva.base.common.TokenStream;
+import viva.base.common.TokenType;
+
+public class TokenWindow implements TokenStream {
+    public static final int DEFAULT_CAPACITY = 16;
+    public static final int DEFAULT_LOOKBEHIND = 4;
+
+    private final AbstractLexer lexer;
+
+    private final Token[] buffer;
+    private final int mask;
+
+    private final int lookbehind;
+
+    private int index;
+    private int filled;
+
+    private boolean exhausted;
+
+    public TokenWindow(AbstractLexer lexer, int capacity, int lookbehind) {
+        if (lookbehind < 0 || lookbehind >= capacity) {
+            throw new IllegalArgumentException("Lookbehind must be in [0, " + capacity + ") but was " + lookbehind);
+        }
+
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+
+        this.lexer = lexer;
+
+        this.buffer = new Token[size];
+        this.mask = size - 1;
+
+        this.lookbehind = lookbehind;
+
+        this.index = 0;
+        this.filled = 0;
+
+        this.exhausted = false;
+    }
+
+    public TokenWindow(AbstractLexer lexer) {
+        this(lexer, DEFAULT_CAPACITY, DEFAULT_LOOKBEHIND);
+    }
+
+    private boolean fill(int position) {
+        while (filled <= position && !exhausted) {
+            if (filled - index >= buffer.length - lookbehind) {
+                throw new IllegalStateException("Lookahead of " + (position - index) + " exceeds the token window");
+            }
+
+            Token token = lexer.nextToken();
+
+            if (token == null) {
+                exhausted = true;
+            } else {
+                buffer[filled++ & mask] = token;
+            }
+        }
+
+        return position < filled;
+    }
+
+    @Override
+    public boolean eos(int lookahead) {
+        int position = index + lookahead;
+
+        return position >= 0 && !fill(position);
+    }
+
+    @Override
+    public Token read(int lookahead) {
+        int position = index + lookahead;
+
+        if (lookahead < -lookbehind) {
+            throw new IllegalStateException("Lookbehind of " + -lookahead + " exceeds the token window");
+        } else if (position < 0 || !fill(position)) {
+            return null;
+        } else {
+            return buffer[position & mask];
+        }
+    }
+
+    @Override
+    public TokenType type(int lookahead) {
+        Token token = read(lookahead);
+
+        return token == null ? null : token.type;
+    }
+
+    @Override
+    public int offset(int lookahead) {
+        Token token = read(lookahead);
+
+        return token == null ? -1 : token.offset;
+    }
+
+    @Override
+    public int length(int lookahead) {
+        Token token = read(lookahead);
+
+        return token == null ? -1 : token.length;
+    }
+
+    @Override
+    public void next() {
+        index++;
+    }
+
+    @Override
+    public Source getSource() {
+        return lexer.getInput();
+    }
+}
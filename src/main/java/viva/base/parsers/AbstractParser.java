@@ -1,18 +1,18 @@
 package viva.base.parsers;
 
-import java.util.Arrays;
-import java.util.List;
-
 import lombok.Getter;
+import viva.base.common.Diagnostics;
 import viva.base.common.Environment;
+import viva.base.common.Source;
 import viva.base.common.Token;
+import viva.base.common.TokenSet;
+import viva.base.common.TokenStream;
 import viva.base.common.TokenType;
 import viva.base.common.ast.Node;
+import viva.base.common.ast.Spans;
 
 public abstract class AbstractParser {
-    private final List<Token> input;
-
-    private int index;
+    private final TokenStream input;
 
     @Getter
     private Node output;
@@ -20,20 +20,32 @@ public abstract class AbstractParser {
     @Getter
     private int errors;
 
+    @Getter
+    private Diagnostics diagnostics;
+
+    private boolean panicking;
+
+    @Getter
+    private Spans spans;
+
+    private int depth;
+
     private Environment global;
     private Environment local;
 
     private AbstractExprParser exprParser;
     private AbstractStmtParser stmtParser;
 
-    protected AbstractParser(List<Token> input, AbstractExprParser exprParser, AbstractStmtParser stmtParser) {
+    protected AbstractParser(TokenStream input, Diagnostics diagnostics, Environment scope, AbstractExprParser exprParser, AbstractStmtParser stmtParser) {
         this.input = input;
 
-        this.index = 0;
-
         this.errors = 0;
 
-        this.global = new Environment(null);
+        this.panicking = false;
+
+        this.diagnostics = diagnostics;
+
+        this.global = scope == null ? new Environment(null) : scope;
         this.local = global;
 
         this.exprParser = exprParser;
@@ -43,8 +55,12 @@ public abstract class AbstractParser {
         this.stmtParser.parser = this;
     }
 
+    protected AbstractParser(TokenStream input, Diagnostics diagnostics, AbstractExprParser exprParser, AbstractStmtParser stmtParser) {
+        this(input, diagnostics, null, exprParser, stmtParser);
+    }
+
     protected boolean eos(int lookahead) {
-        return index + lookahead >= input.size();
+        return input.eos(lookahead);
     }
 
     protected boolean eos() {
@@ -52,60 +68,138 @@ public abstract class AbstractParser {
     }
 
     protected void next() {
-        index++;
+        input.next();
     }
 
     protected Token read(int lookahead) {
-        if (eos(lookahead)) {
-            return null;
-        } else {
-            return input.get(index + lookahead);
-        }
+        return input.read(lookahead);
     }
 
     protected Token read() {
         return read(0);
     }
 
-    protected boolean matches(int lookahead, TokenType... types) {
-        for (TokenType type : types) {
-            if (!eos(lookahead) && read(lookahead).type == type) {
-                return true;
-            }
-        }
+    protected Source getSource() {
+        return input.getSource();
+    }
+
+    protected TokenType type(int lookahead) {
+        return input.type(lookahead);
+    }
+
+    protected int offset(int lookahead) {
+        return input.offset(lookahead);
+    }
 
-        return false;
+    protected int length(int lookahead) {
+        return input.length(lookahead);
     }
 
-    protected boolean matches(TokenType... types) {
+    protected TokenType type() {
+        return type(0);
+    }
+
+    protected boolean matches(int lookahead, TokenType type) {
+        return type(lookahead) == type;
+    }
+
+    protected boolean matches(TokenType type) {
+        return matches(0, type);
+    }
+
+    protected boolean matches(int lookahead, TokenSet types) {
+        return types.contains(type(lookahead));
+    }
+
+    protected boolean matches(TokenSet types) {
         return matches(0, types);
     }
 
-    protected void expected(int lookahead, TokenType... types) {
+    protected void expected(int lookahead, TokenSet types) {
+        if (panicking) {
+            return;
+        }
+
+        Token token = read(lookahead);
+
+        panicking = true;
         errors++;
-        System.out.printf("[%s:%s] Expected on of %s but got %s%n",
-            read(lookahead).line,
-            read(lookahead).column,
-            Arrays.toString(types),
-            read(lookahead).type);
+
+        if (token == null) {
+            diagnostics.error(input.getSource(), input.getSource().length(), 0,
+                String.format("Expected on of %s but got end of input", types));
+        } else {
+            diagnostics.error(token.source, token.offset, token.length,
+                String.format("Expected on of %s but got %s", types, token.type));
+        }
     }
 
-    protected void expected(TokenType... types) {
+    protected void expected(TokenSet types) {
         expected(0, types);
     }
 
-    protected void expects(int lookahead, TokenType... types) {
+    protected void expected(int lookahead, TokenType type) {
+        expected(lookahead, TokenSet.of(type));
+    }
+
+    protected void expected(TokenType type) {
+        expected(0, type);
+    }
+
+    protected void expects(int lookahead, TokenType type) {
+        if (matches(lookahead, type)) {
+            next();
+        } else {
+            expected(lookahead, type);
+        }
+    }
+    
+    protected void expects(TokenType type) {
+        expects(0, type);
+    }
+
+    protected void expects(int lookahead, TokenSet types) {
         if (matches(lookahead, types)) {
             next();
         } else {
             expected(lookahead, types);
         }
     }
-    
-    protected void expects(TokenType... types) {
+
+    protected void expects(TokenSet types) {
         expects(0, types);
     }
 
+    protected boolean isPanicking() {
+        return panicking;
+    }
+
+    protected void synchronize(TokenSet terminators, TokenSet anchors) {
+        if (!panicking) {
+            return;
+        }
+
+        while (!eos() && !matches(terminators) && !matches(anchors)) {
+            next();
+        }
+
+        if (!eos() && matches(terminators)) {
+            next();
+        }
+
+        panicking = false;
+    }
+
+    public void trackSpans() {
+        if (spans == null) {
+            spans = new Spans();
+        }
+    }
+
+    protected void setSpans(Spans spans) {
+        this.spans = spans;
+    }
+
     protected void setOutput(Node output) {
         this.output = output;
     }
@@ -130,8 +224,49 @@ public abstract class AbstractParser {
         return exprParser.parseExpr();
     }
 
+    public Node.Expr parseBody() {
+        Node.Expr body = deferBody();
+
+        return body == null ? parseExpr() : body;
+    }
+
+    protected Node.Expr deferBody() {
+        return null;
+    }
+
     public Node.Stmt parseStmt() {
-        return stmtParser.parseStmt();
+        if (spans == null) {
+            return stmtParser.parseStmt();
+        }
+
+        int start = offset(0);
+        int length = length(0);
+
+        depth++;
+        Node.Stmt stmt = stmtParser.parseStmt();
+        depth--;
+
+        record(stmt, start, length);
+
+        return stmt;
+    }
+
+    protected void record(Node.Stmt stmt, int start, int length) {
+        if (spans == null || stmt == null || start < 0) {
+            return;
+        }
+
+        int end = offset(-1) < start ? start + length : offset(-1) + length(-1);
+
+        if (depth == 0) {
+            spans.root(stmt, start, end);
+        } else {
+            spans.put(stmt, start, end);
+        }
+    }
+
+    public void synchronize() {
+        stmtParser.synchronize();
     }
 
     public abstract void parse();
@@ -2,6 +2,7 @@ package viva.base.parsers;
 
 import viva.base.common.Environment;
 import viva.base.common.Token;
+import viva.base.common.TokenSet;
 import viva.base.common.TokenType;
 import viva.base.common.ast.Node;
 
@@ -13,11 +14,21 @@ public abstract class AbstractStmtParser {
     }
 
     public abstract Node.Stmt parseStmt();
+
+    public abstract void synchronize();
     
     public Node.Expr parseExpr() {
         return parser.parseExpr();
     }
 
+    public Node.Expr parseBody() {
+        return parser.parseBody();
+    }
+
+    protected Node.Expr deferBody() {
+        return parser.deferBody();
+    }
+
     protected boolean eos(int lookahead) {
         return parser.eos(lookahead);
     }
@@ -38,30 +49,82 @@ public abstract class AbstractStmtParser {
         return read(0);
     }
 
-    protected boolean matches(int lookahead, TokenType... types) {
+    protected TokenType type(int lookahead) {
+        return parser.type(lookahead);
+    }
+
+    protected int offset(int lookahead) {
+        return parser.offset(lookahead);
+    }
+
+    protected int length(int lookahead) {
+        return parser.length(lookahead);
+    }
+
+    protected TokenType type() {
+        return type(0);
+    }
+
+    protected boolean matches(int lookahead, TokenType type) {
+        return parser.matches(lookahead, type);
+    }
+
+    protected boolean matches(TokenType type) {
+        return matches(0, type);
+    }
+
+    protected boolean matches(int lookahead, TokenSet types) {
         return parser.matches(lookahead, types);
     }
 
-    protected boolean matches(TokenType... types) {
+    protected boolean matches(TokenSet types) {
         return matches(0, types);
     }
 
-    protected void expected(int lookahead, TokenType... types) {
+    protected void expected(int lookahead, TokenSet types) {
         parser.expected(lookahead, types);
     }
 
-    protected void expected(TokenType... types) {
+    protected void expected(TokenSet types) {
         expected(0, types);
     }
 
-    protected void expects(int lookahead, TokenType... types) {
-        parser.expects(lookahead, types);
+    protected void expected(int lookahead, TokenType type) {
+        parser.expected(lookahead, type);
+    }
+
+    protected void expected(TokenType type) {
+        expected(0, type);
+    }
+
+    protected void expects(int lookahead, TokenType type) {
+        parser.expects(lookahead, type);
     }
     
-    protected void expects(TokenType... types) {
+    protected void expects(TokenType type) {
+        expects(0, type);
+    }
+
+    protected void expects(int lookahead, TokenSet types) {
+        parser.expects(lookahead, types);
+    }
+
+    protected void expects(TokenSet types) {
         expects(0, types);
     }
 
+    protected boolean isPanicking() {
+        return parser.isPanicking();
+    }
+
+    protected void synchronize(TokenSet terminators, TokenSet anchors) {
+        parser.synchronize(terminators, anchors);
+    }
+
+    protected void record(Node.Stmt stmt, int start, int length) {
+        parser.record(stmt, start, length);
+    }
+
     public void enterScope() {
         parser.enterScope();
     }
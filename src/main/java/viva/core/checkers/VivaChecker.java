@@ -0,0 +1,687 @@
+package viva.core.checkers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import viva.base.common.Diagnostics;
+import viva.base.common.SymbolTable;
+import viva.base.common.Token;
+import viva.base.common.ast.Node;
+import viva.base.common.ast.NodeVisitor;
+import viva.core.resolvers.VivaResolver;
+import viva.utils.Couple;
+
+public class VivaChecker implements NodeVisitor<String> {
+    private static final Set<String> PRIMITIVES = Set.of("int", "float", "bool", "char", "string");
+
+    private static final Set<String> NUMERIC = Set.of("int", "float");
+
+    @Getter
+    private final Diagnostics diagnostics;
+
+    @Getter
+    private final VivaResolver resolver;
+
+    private SymbolTable<Binding> scope;
+
+    private Frame frame;
+
+    private String returnType;
+    private int loops;
+
+    private Token anchor;
+
+    private VivaChecker(Diagnostics diagnostics, VivaResolver resolver, SymbolTable<Binding> scope, Frame frame) {
+        this.diagnostics = diagnostics;
+
+        this.resolver = resolver;
+
+        this.scope = scope;
+
+        this.frame = frame;
+
+        this.returnType = null;
+        this.loops = 0;
+
+        this.anchor = null;
+    }
+
+    public VivaChecker(Diagnostics diagnostics, VivaResolver resolver) {
+        this(diagnostics, resolver, SymbolTable.empty(), null);
+    }
+
+    public VivaChecker(Diagnostics diagnostics) {
+        this(diagnostics, null);
+    }
+
+    public VivaChecker() {
+        this(new Diagnostics());
+    }
+
+    public void check(Node.Program program) {
+        check(program, null);
+    }
+
+    public void check(Node.Program program, ForkJoinPool pool) {
+        enterFrame();
+
+        for (Node.Stmt stmt : program.body) {
+            if (stmt instanceof Node.Stmt.Define.Proc) {
+                declare(((Node.Stmt.Define.Proc) stmt).identifier, Kind.PROC, ((Node.Stmt.Define.Proc) stmt));
+            } else if (stmt instanceof Node.Stmt.Define.Type) {
+                declare(((Node.Stmt.Define.Type) stmt).identifier, Kind.TYPE, null);
+            }
+        }
+
+        List<VivaChecker> globals = new ArrayList<>();
+        List<VivaChecker> locals = new ArrayList<>();
+
+        for (Node.Stmt stmt : program.body) {
+            VivaChecker global = fork();
+
+            if (stmt != null) {
+                global.anchor = first(stmt);
+                global.visitGlobal(stmt);
+            }
+
+            scope = global.scope;
+            globals.add(global);
+
+            locals.add(stmt instanceof Node.Stmt.Define.Proc && ((Node.Stmt.Define.Proc) stmt).body != null ? fork() : null);
+        }
+
+        List<ForkJoinTask<VivaChecker>> bodies = new ArrayList<>();
+
+        for (int i = 0; i < locals.size(); i++) {
+            VivaChecker local = locals.get(i);
+
+            if (local == null) {
+                bodies.add(null);
+                continue;
+            }
+
+            Node.Stmt.Define.Proc proc = (Node.Stmt.Define.Proc) program.body.get(i);
+
+            ForkJoinTask<VivaChecker> task = ForkJoinTask.adapt(() -> {
+                local.checkBody(proc);
+                return local;
+            });
+
+            if (pool == null) {
+                task.invoke();
+            } else {
+                pool.execute(task);
+            }
+
+            bodies.add(task);
+        }
+
+        for (int i = 0; i < globals.size(); i++) {
+            diagnostics.addAll(globals.get(i).diagnostics);
+
+            if (bodies.get(i) != null) {
+                diagnostics.addAll(bodies.get(i).join().diagnostics);
+            }
+        }
+
+        closeFrame();
+    }
+
+    private VivaChecker fork() {
+        return new VivaChecker(new Diagnostics(diagnostics.getMaxErrors()), resolver, scope, frame);
+    }
+
+    private void visitGlobal(Node.Stmt stmt) {
+        if (stmt instanceof Node.Stmt.Define.Proc) {
+            checkSignature((Node.Stmt.Define.Proc) stmt);
+        } else if (stmt instanceof Node.Stmt.Define.Type) {
+            visitOptional(((Node.Stmt.Define.Type) stmt).body);
+        } else {
+            visit(stmt);
+        }
+    }
+
+    private void enterFrame() {
+        frame = new Frame(frame, scope, frame == null ? 0 : frame.level + 1);
+    }
+
+    private void closeFrame() {
+        scope = frame.saved;
+        frame = frame.parent;
+    }
+
+    private void error(Token token, String format, Object... args) {
+        if (token == null) {
+            token = anchor;
+        }
+
+        if (token == null) {
+            diagnostics.error(null, 0, 0, String.format(format, args));
+        } else {
+            diagnostics.error(token.source, token.offset, token.length, String.format(format, args));
+        }
+    }
+
+    private void declare(Token identifier, Kind kind, String type, Node.Stmt.Define.Proc proc) {
+        Binding binding = scope.get(identifier.symbol());
+
+        if (binding != null && binding.level == frame.level) {
+            error(identifier, "Duplicate definition of %s", identifier.lexeme());
+        } else {
+            scope = scope.put(identifier.symbol(), new Binding(kind, type, proc, frame.level));
+        }
+    }
+
+    private void declare(Token identifier, Kind kind, Node.Stmt.Define.Proc proc) {
+        declare(identifier, kind, proc == null ? null : proc.returnType.lexeme(), proc);
+    }
+
+    private Binding lookup(Node.Expr node, Token identifier) {
+        Binding binding = scope.get(identifier.symbol());
+
+        if (binding == null && (resolver == null || resolver.address(node) != null)) {
+            error(identifier, "Undefined name %s", identifier.lexeme());
+        }
+
+        return binding;
+    }
+
+    private String checkType(Token type) {
+        if (!isType(type)) {
+            error(type, "Unknown type %s", type.lexeme());
+            return null;
+        }
+
+        return type.lexeme();
+    }
+
+    private void checkSignature(Node.Stmt.Define.Proc node) {
+        for (Token type : node.parameters.values()) {
+            checkType(type);
+        }
+
+        checkType(node.returnType);
+    }
+
+    private void checkBody(Node.Stmt.Define.Proc node) {
+        String outerReturnType = returnType;
+        int outerLoops = loops;
+        Token outerAnchor = anchor;
+
+        returnType = node.returnType.lexeme();
+        loops = 0;
+        anchor = node.identifier;
+
+        enterFrame();
+
+        for (Map.Entry<Token, Token> parameter : node.parameters.entrySet()) {
+            declare(parameter.getKey(), Kind.VALUE, isType(parameter.getValue()) ? parameter.getValue().lexeme() : null, null);
+        }
+
+        String type = visit(node.body);
+
+        if (!(unwrap(node.body) instanceof Node.Expr.Block)) {
+            expect(node.body, type, returnType, node.identifier);
+        }
+
+        closeFrame();
+
+        returnType = outerReturnType;
+        loops = outerLoops;
+        anchor = outerAnchor;
+    }
+
+    private boolean isType(Token type) {
+        if (PRIMITIVES.contains(type.lexeme())) {
+            return true;
+        }
+
+        Binding binding = scope.get(type.symbol());
+
+        return binding != null && binding.kind == Kind.TYPE;
+    }
+
+    private static Node.Expr unwrap(Node.Expr node) {
+        return node instanceof Node.Expr.Deferred ? ((Node.Expr.Deferred) node).get() : node;
+    }
+
+    private static Token first(Node.Expr node) {
+        while (true) {
+            node = unwrap(node);
+
+            if (node instanceof Node.Expr.Binary) {
+                node = ((Node.Expr.Binary) node).operandLeft;
+            } else if (node instanceof Node.Expr.Unary) {
+                return ((Node.Expr.Unary) node).operator;
+            } else if (node instanceof Node.Expr.Literal) {
+                return ((Node.Expr.Literal) node).value;
+            } else if (node instanceof Node.Expr.Variable) {
+                return ((Node.Expr.Variable) node).identifier;
+            } else if (node instanceof Node.Expr.ProcCall) {
+                return ((Node.Expr.ProcCall) node).identifier;
+            } else if (node instanceof Node.Expr.Access) {
+                return ((Node.Expr.Access) node).identifier;
+            } else if (node instanceof Node.Expr.Reference) {
+                return ((Node.Expr.Reference) node).variable;
+            } else if (node instanceof Node.Expr.While) {
+                node = ((Node.Expr.While) node).condition;
+            } else if (node instanceof Node.Expr.Until) {
+                node = ((Node.Expr.Until) node).condition;
+            } else if (node instanceof Node.Expr.If) {
+                node = ((Node.Expr.If) node).condition;
+            } else if (node instanceof Node.Expr.Block) {
+                return first(((Node.Expr.Block) node).body);
+            } else {
+                return null;
+            }
+        }
+    }
+
+    private static Token first(List<Node.Stmt> body) {
+        for (Node.Stmt stmt : body) {
+            Token token = first(stmt);
+
+            if (token != null) {
+                return token;
+            }
+        }
+
+        return null;
+    }
+
+    private static Token first(Node.Stmt node) {
+        if (node instanceof Node.Stmt.Define.Proc) {
+            return ((Node.Stmt.Define.Proc) node).identifier;
+        } else if (node instanceof Node.Stmt.Define.Type) {
+            return ((Node.Stmt.Define.Type) node).identifier;
+        } else if (node instanceof Node.Stmt.Define.Variable) {
+            return ((Node.Stmt.Define.Variable) node).identifier;
+        } else if (node instanceof Node.Stmt.Continue) {
+            return ((Node.Stmt.Continue) node).identifier;
+        } else if (node instanceof Node.Stmt.Break) {
+            return ((Node.Stmt.Break) node).identifier;
+        } else if (node instanceof Node.Stmt.Return) {
+            return first(((Node.Stmt.Return) node).value);
+        } else if (node instanceof Node.Stmt.Expr) {
+            return first(((Node.Stmt.Expr) node).value);
+        } else if (node instanceof Node.Stmt.While) {
+            return first(((Node.Stmt.While) node).condition);
+        } else if (node instanceof Node.Stmt.Until) {
+            return first(((Node.Stmt.Until) node).body);
+        } else if (node instanceof Node.Stmt.If) {
+            return first(((Node.Stmt.If) node).condition);
+        } else if (node instanceof Node.Stmt.Block) {
+            return first(((Node.Stmt.Block) node).body);
+        } else {
+            return null;
+        }
+    }
+
+    private static String promote(String left, String right) {
+        if (left.equals(right)) {
+            return left;
+        } else if (NUMERIC.contains(left) && NUMERIC.contains(right)) {
+            return "float";
+        } else {
+            return null;
+        }
+    }
+
+    private void expect(Node.Expr node, String found, String expected, Token fallback) {
+        if (found == null || expected == null || expected.equals(promote(found, expected))) {
+            return;
+        }
+
+        Token token = first(node);
+
+        error(token == null ? fallback : token, "Expected %s but found %s", expected, found);
+    }
+
+    private String visitCondition(Node.Expr condition) {
+        if (condition != null) {
+            expect(condition, visit(condition), "bool", null);
+        }
+
+        return null;
+    }
+
+    private void visitBody(List<Node.Stmt> body) {
+        for (Node.Stmt stmt : body) {
+            if (stmt != null) {
+                visit(stmt);
+            }
+        }
+    }
+
+    private String visitOptional(Node node) {
+        return node == null ? null : visit(node);
+    }
+
+    private String visitLoop(Node node) {
+        loops++;
+        visitOptional(node);
+        loops--;
+        return null;
+    }
+
+    @Override
+    public String visitProgram(Node.Program node) {
+        check(node);
+        return null;
+    }
+
+    @Override
+    public String visitStmt(Node.Stmt node) {
+        return null;
+    }
+
+    @Override
+    public String visitBlockStmt(Node.Stmt.Block node) {
+        enterFrame();
+        visitBody(node.body);
+        closeFrame();
+        return null;
+    }
+
+    @Override
+    public String visitDefineStmt(Node.Stmt.Define node) {
+        return null;
+    }
+
+    @Override
+    public String visitDefineProcStmt(Node.Stmt.Define.Proc node) {
+        declare(node.identifier, Kind.PROC, node);
+        checkSignature(node);
+
+        if (node.body != null) {
+            checkBody(node);
+        }
+
+        return null;
+    }
+
+    @Override
+    public String visitDefineTypeStmt(Node.Stmt.Define.Type node) {
+        declare(node.identifier, Kind.TYPE, null);
+        visitOptional(node.body);
+        return null;
+    }
+
+    @Override
+    public String visitDefineVariableStmt(Node.Stmt.Define.Variable node) {
+        String type = checkType(node.type);
+
+        if (node.value != null) {
+            expect(node.value, visit(node.value), type, node.identifier);
+        }
+
+        declare(node.identifier, Kind.VALUE, type, null);
+        return null;
+    }
+
+    @Override
+    public String visitReturnStmt(Node.Stmt.Return node) {
+        String type = visitOptional(node.value);
+
+        if (returnType == null) {
+            error(first(node.value), "Return outside of a proc");
+        } else if (node.value != null) {
+            expect(node.value, type, returnType, null);
+        }
+
+        return null;
+    }
+
+    @Override
+    public String visitContinueStmt(Node.Stmt.Continue node) {
+        if (loops == 0) {
+            error(node.identifier, "Continue %s outside of a loop", node.identifier.lexeme());
+        }
+
+        return null;
+    }
+
+    @Override
+    public String visitBreakStmt(Node.Stmt.Break node) {
+        if (loops == 0) {
+            error(node.identifier, "Break %s outside of a loop", node.identifier.lexeme());
+        }
+
+        return null;
+    }
+
+    @Override
+    public String visitWhileStmt(Node.Stmt.While node) {
+        visitCondition(node.condition);
+        return visitLoop(node.body);
+    }
+
+    @Override
+    public String visitUntilStmt(Node.Stmt.Until node) {
+        visitLoop(node.body);
+        return visitCondition(node.condition);
+    }
+
+    @Override
+    public String visitIfStmt(Node.Stmt.If node) {
+        visitCondition(node.condition);
+        visitOptional(node.body);
+        for (Couple<Node.Expr, Node.Stmt> elif : node.elifs) {
+            visitCondition(elif.a);
+            visitOptional(elif.b);
+        }
+        visitOptional(node.elseBody);
+        return null;
+    }
+
+    @Override
+    public String visitExprStmt(Node.Stmt.Expr node) {
+        visitOptional(node.value);
+        return null;
+    }
+
+    @Override
+    public String visitExpr(Node.Expr node) {
+        return null;
+    }
+
+    private String operands(Token operator, String left, String right, Set<String> allowed, String result) {
+        if (left == null || right == null) {
+            return result;
+        }
+
+        String type = promote(left, right);
+
+        if (type == null || (allowed != null && !allowed.contains(type))) {
+            error(operator, "Operator %s cannot be applied to %s and %s", operator.lexeme(), left, right);
+            return result;
+        }
+
+        return result == null ? type : result;
+    }
+
+    @Override
+    public String visitBinaryExpr(Node.Expr.Binary node) {
+        String left = visitOptional(node.operandLeft);
+        String right = visitOptional(node.operandRight);
+
+        switch (node.operator.type) {
+            case ASSIGN: {
+                expect(node.operandRight, right, left, node.operator);
+                return left;
+            } case ADD: {
+                return "string".equals(left) && "string".equals(right)
+                    ? left
+                    : operands(node.operator, left, right, NUMERIC, null);
+            } case SUB: case MUL: case DIV: {
+                return operands(node.operator, left, right, NUMERIC, null);
+            } case LESS_THAN: case MORE_THAN: case LESS_THAN_EQUAL: case MORE_THAN_EQUAL: {
+                return operands(node.operator, left, right, Set.of("int", "float", "char"), "bool");
+            } case EQUAL: case NOT_EQUAL: {
+                return operands(node.operator, left, right, null, "bool");
+            } case LOGICAL_AND: case LOGICAL_XOR: case LOGICAL_OR: {
+                return operands(node.operator, left, right, Set.of("bool"), "bool");
+            } case BITWISE_AND: case BITWISE_XOR: case BITWISE_OR: {
+                return operands(node.operator, left, right, Set.of("int"), "int");
+            } default: {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public String visitUnaryExpr(Node.Expr.Unary node) {
+        String operand = visitOptional(node.operandRight);
+
+        switch (node.operator.type) {
+            case LOGICAL_NOT: {
+                expect(node.operandRight, operand, "bool", node.operator);
+                return "bool";
+            } case BITWISE_NOT: {
+                expect(node.operandRight, operand, "int", node.operator);
+                return "int";
+            } case ADD: case SUB: {
+                if (operand != null && !NUMERIC.contains(operand)) {
+                    error(node.operator, "Operator %s cannot be applied to %s", node.operator.lexeme(), operand);
+                    return null;
+                }
+
+                return operand;
+            } default: {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public String visitLiteralExpr(Node.Expr.Literal node) {
+        switch (node.value.type) {
+            case INTEGER_LITERAL: {
+                return "int";
+            } case FLOAT_LITERAL: {
+                return "float";
+            } case BOOLEAN_LITERAL: {
+                return "bool";
+            } case CHARACTER_LITERAL: {
+                return "char";
+            } case STRING_LITERAL: {
+                return "string";
+            } default: {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public String visitVariableExpr(Node.Expr.Variable node) {
+        Binding binding = lookup(node, node.identifier);
+
+        return binding == null || binding.kind != Kind.VALUE ? null : binding.type;
+    }
+
+    @Override
+    public String visitProcCallExpr(Node.Expr.ProcCall node) {
+        Binding binding = lookup(node, node.identifier);
+
+        List<String> arguments = new ArrayList<>();
+        for (Node.Expr argument : node.arguments) {
+            arguments.add(visitOptional(argument));
+        }
+
+        if (binding == null) {
+            return null;
+        } else if (binding.kind != Kind.PROC) {
+            error(node.identifier, "%s is not a proc", node.identifier.lexeme());
+            return null;
+        }
+
+        if (arguments.size() != binding.proc.parameters.size()) {
+            error(node.identifier, "Expected %s arguments to %s but found %s",
+                binding.proc.parameters.size(), node.identifier.lexeme(), arguments.size());
+            return binding.type;
+        }
+
+        int i = 0;
+        for (Token type : binding.proc.parameters.values()) {
+            expect(node.arguments.get(i), arguments.get(i), type.lexeme(), node.identifier);
+            i++;
+        }
+
+        return binding.type;
+    }
+
+    @Override
+    public String visitAccessExpr(Node.Expr.Access node) {
+        lookup(node, node.identifier);
+        expect(node.index, visitOptional(node.index), "int", node.identifier);
+        return null;
+    }
+
+    @Override
+    public String visitReferenceExpr(Node.Expr.Reference node) {
+        lookup(node, node.variable);
+        return null;
+    }
+
+    @Override
+    public String visitBlockExpr(Node.Expr.Block node) {
+        enterFrame();
+        visitBody(node.body);
+        closeFrame();
+        return null;
+    }
+
+    @Override
+    public String visitWhileExpr(Node.Expr.While node) {
+        visitCondition(node.condition);
+        return visitLoop(node.body);
+    }
+
+    @Override
+    public String visitUntilExpr(Node.Expr.Until node) {
+        visitLoop(node.body);
+        return visitCondition(node.condition);
+    }
+
+    @Override
+    public String visitIfExpr(Node.Expr.If node) {
+        visitCondition(node.condition);
+        String type = visitOptional(node.body);
+        for (Couple<Node.Expr, Node.Expr> elif : node.elifs) {
+            visitCondition(elif.a);
+            type = same(type, visitOptional(elif.b));
+        }
+        return node.elseBody == null ? null : same(type, visitOptional(node.elseBody));
+    }
+
+    private static String same(String a, String b) {
+        return a != null && a.equals(b) ? a : null;
+    }
+
+    private static enum Kind {
+        VALUE, PROC, TYPE;
+    }
+
+    @AllArgsConstructor
+    private static class Binding {
+        private final Kind kind;
+        private final String type;
+        private final Node.Stmt.Define.Proc proc;
+
+        private final int level;
+    }
+
+    @AllArgsConstructor
+    private static class Frame {
+        private final Frame parent;
+        private final SymbolTable<Binding> saved;
+
+        private final int level;
+    }
+}
@@ -3,192 +3,204 @@ package viva.core.lexers;
 import java.util.HashMap;
 import java.util.Map;
 
+import viva.base.common.Diagnostics;
+import viva.base.common.Source;
+import viva.base.common.TokenBuffer;
 import viva.base.common.TokenType;
 import viva.base.lexers.AbstractLexer;
+import viva.utils.KeywordTable;
 import viva.utils.LexerUtils;
 
 public class VivaLexer extends AbstractLexer {
     private static final Map<String, TokenType> RESERVED_WORDS = new HashMap<>();
 
+    private static final KeywordTable KEYWORDS;
+
+    public VivaLexer(Source input, TokenBuffer output, Diagnostics diagnostics) {
+        super(input, output, diagnostics);
+    }
+
+    public VivaLexer(Source input, TokenBuffer output) {
+        super(input, output);
+    }
+
+    public VivaLexer(Source input) {
+        super(input);
+    }
+
     public VivaLexer(String input) {
         super(input);            
     }
 
     @Override
-    protected void addIdentifier(String lexeme) {
-        add(token(RESERVED_WORDS.getOrDefault(lexeme, TokenType.IDENTIFIER), lexeme, -lexeme.length()));
+    protected AbstractLexer fork(Source input, TokenBuffer output, Diagnostics diagnostics) {
+        return new VivaLexer(input, output, diagnostics);
     }
 
     @Override
-    public void tokenize() {
-        while (!eos()) {
-            reset();
+    protected void addIdentifier() {
+        addIdentifier(KEYWORDS);
+    }
 
-            switch (read()) {
-                case '\t': {
-                    nextColumn();
-                    break;
-                } case ' ': {
-                    nextColumn();
-                    break;
-                } case '\r': {
-                    nextColumn();
-                    break;
-                } case '\n': {
-                    nextLine();
-                    break;
-                } case '~': {
-                    addChars(TokenType.BITWISE_NOT);
-                    break;
-                } case '&':{
-                    addChars(TokenType.BITWISE_AND);
-                    break;
-                } case '^': {
-                    addChars(TokenType.BITWISE_XOR);
-                    break;
-                } case '|': {
-                    addChars(TokenType.BITWISE_OR);
-                    break;
-                } case ':':{
-                    addChars(TokenType.COLON);
-                    break;
-                } case ';': {
-                    addChars(TokenType.SEMI);
-                    break;
-                } case ',': {
-                    addChars(TokenType.COMMA);
-                    break;
-                } case '{': {
-                    addChars(TokenType.LBRACE);
-                    break;
-                } case '}':{
-                    addChars(TokenType.RBRACE);
-                    break;
-                } case '(': {
-                    addChars(TokenType.LPAREN);
-                    break;
-                } case ')': {
-                    addChars(TokenType.RPAREN);
-                    break;
-                } case '[': {
-                    addChars(TokenType.LBRACK);
-                    break;
-                } case ']': {
-                    addChars(TokenType.RBRACK);
-                    break;
-                } case '=': {
-                    switch (read(1)) {
-                        case '=': {
-                            addChars(TokenType.EQUAL, 2);
-                            break;
-                        } case '>': {
-                            addChars(TokenType.WIDE_ARROW, 2);
-                            break;
-                        } default: {
-                            addChars(TokenType.ASSIGN);
-                            break;
-                        }
-                    }
-                    break;
-                } case '!': {
-                    switch (read(1)) {
-                        case '=': {
-                            addChars(TokenType.NOT_EQUAL, 2);
-                            break;
-                        } default: {
-                            error();
-                            nextColumn();
-                            break;
-                        }
+    @Override
+    protected void scan() {
+        switch (read()) {
+            case '\t':
+            case ' ':
+            case '\r': {
+                advance(LexerUtils.WHITESPACE);
+                break;
+            } case '\n': {
+                nextLine();
+                break;
+            } case '~': {
+                addChars(TokenType.BITWISE_NOT);
+                break;
+            } case '&':{
+                addChars(TokenType.BITWISE_AND);
+                break;
+            } case '^': {
+                addChars(TokenType.BITWISE_XOR);
+                break;
+            } case '|': {
+                addChars(TokenType.BITWISE_OR);
+                break;
+            } case ':':{
+                addChars(TokenType.COLON);
+                break;
+            } case ';': {
+                addChars(TokenType.SEMI);
+                break;
+            } case ',': {
+                addChars(TokenType.COMMA);
+                break;
+            } case '{': {
+                addChars(TokenType.LBRACE);
+                break;
+            } case '}':{
+                addChars(TokenType.RBRACE);
+                break;
+            } case '(': {
+                addChars(TokenType.LPAREN);
+                break;
+            } case ')': {
+                addChars(TokenType.RPAREN);
+                break;
+            } case '[': {
+                addChars(TokenType.LBRACK);
+                break;
+            } case ']': {
+                addChars(TokenType.RBRACK);
+                break;
+            } case '=': {
+                switch (read(1)) {
+                    case '=': {
+                        addChars(TokenType.EQUAL, 2);
+                        break;
+                    } case '>': {
+                        addChars(TokenType.WIDE_ARROW, 2);
+                        break;
+                    } default: {
+                        addChars(TokenType.ASSIGN);
+                        break;
                     }
-                    break;
-                } case '>': {
-                    switch (read(1)) {
-                        case '=': {
-                            addChars(TokenType.MORE_THAN_EQUAL, 2);
-                            break;
-                        } default: {
-                            addChars(TokenType.MORE_THAN);
-                            break;
-                        }
+                }
+                break;
+            } case '!': {
+                switch (read(1)) {
+                    case '=': {
+                        addChars(TokenType.NOT_EQUAL, 2);
+                        break;
+                    } default: {
+                        error();
+                        nextColumn();
+                        break;
                     }
-                    break;
-                } case '<': {
-                    switch (read(1)) {
-                        case '=': {
-                            addChars(TokenType.LESS_THAN_EQUAL, 2);
-                            break;
-                        } default: {
-                            addChars(TokenType.LESS_THAN);
-                            break;
-                        }
+                }
+                break;
+            } case '>': {
+                switch (read(1)) {
+                    case '=': {
+                        addChars(TokenType.MORE_THAN_EQUAL, 2);
+                        break;
+                    } default: {
+                        addChars(TokenType.MORE_THAN);
+                        break;
                     }
-                    break;
-                } case '+': {
-                    addChars(TokenType.ADD);
-                    break;
-                } case '-': {
-                    switch (read(1)) {
-                        case '>': {
-                            addChars(TokenType.THIN_ARROW, 2);
-                            break;
-                        } default: {
-                            addChars(TokenType.SUB);
-                            break;
-                        }
+                }
+                break;
+            } case '<': {
+                switch (read(1)) {
+                    case '=': {
+                        addChars(TokenType.LESS_THAN_EQUAL, 2);
+                        break;
+                    } default: {
+                        addChars(TokenType.LESS_THAN);
+                        break;
                     }
-                    break;
-                } case '*': {
-                    addChars(TokenType.MUL);
-                    break;
-                } case '/': {
-                    addChars(TokenType.DIV);
-                    break;
-                } case '\"': {
-                    nextColumn();
-                    while (!eos() && LexerUtils.isValidString(read())) {
-                        nextColumn();
+                }
+                break;
+            } case '+': {
+                addChars(TokenType.ADD);
+                break;
+            } case '-': {
+                switch (read(1)) {
+                    case '>': {
+                        addChars(TokenType.THIN_ARROW, 2);
+                        break;
+                    } default: {
+                        addChars(TokenType.SUB);
+                        break;
                     }
+                }
+                break;
+            } case '*': {
+                addChars(TokenType.MUL);
+                break;
+            } case '/': {
+                addChars(TokenType.DIV);
+                break;
+            } case '\"': {
+                nextColumn();
+                advance(LexerUtils.STRING);
+                if (!eos()) {
                     nextColumn();
-                    
-                    addLiteral(TokenType.STRING_LITERAL);
-                    break;
-                } case '\'': {
+                }
+                
+                addLiteral(TokenType.STRING_LITERAL);
+                break;
+            } case '\'': {
+                nextColumn();
+                advance(LexerUtils.CHAR);
+                if (!eos()) {
                     nextColumn();
-                    while (!eos() && LexerUtils.isValidChar(read())) {
+                }
+
+                addLiteral(TokenType.CHARACTER_LITERAL);
+                break;
+            } default: {
+                int classes = LexerUtils.classOf(read());
+
+                if ((classes & LexerUtils.DIGIT) != 0) {
+                    advance(LexerUtils.DIGIT);
+
+                    if (read() == '.') {
                         nextColumn();
-                    }
-                    nextColumn();
+                        advance(LexerUtils.DIGIT);
 
-                    addLiteral(TokenType.CHARACTER_LITERAL);
-                    break;
-                } default: {
-                    if (LexerUtils.isDigit(read())) {
-                        while (!eos() && LexerUtils.isDigit(read())) {
-                            nextColumn();
-                        }
-
-                        if (read() == '.') {
-                            while (!eos() && LexerUtils.isDigit(read())) {
-                                nextColumn();
-                            }
-
-                            addLiteral(TokenType.FLOAT_LITERAL);
-                        } else {
-                            addLiteral(TokenType.INTEGER_LITERAL);
-                        }
-                    } else if (LexerUtils.isIdentHead(read())) {
-                        while (!eos() && LexerUtils.isIdentBody(read())) {
-                            nextColumn();
-                        }
-
-                        addIdentifier();
+                        addLiteral(TokenType.FLOAT_LITERAL);
                     } else {
-                        error();
-                        nextColumn();
+                        addLiteral(TokenType.INTEGER_LITERAL);
                     }
-                    break;
+                } else if ((classes & LexerUtils.IDENT_HEAD) != 0) {
+                    advance(LexerUtils.IDENT_BODY);
+
+                    addIdentifier();
+                } else {
+                    error();
+                    skip();
                 }
+                break;
             }
         }
     }
@@ -213,5 +225,7 @@ public class VivaLexer extends AbstractLexer {
         RESERVED_WORDS.put("and",         TokenType.LOGICAL_AND);
         RESERVED_WORDS.put("xor",         TokenType.LOGICAL_XOR);
         RESERVED_WORDS.put("or",          TokenType.LOGICAL_OR);
+
+        KEYWORDS = new KeywordTable(RESERVED_WORDS);
     }
 }
@@ -1,271 +1,341 @@
 package viva.core.parsers;
 
 import java.util.ArrayList;
-import java.util.EnumMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
-import viva.base.common.Environment;
+import viva.base.common.Token;
+import viva.base.common.TokenSet;
 import viva.base.common.TokenType;
 import viva.base.common.ast.Node;
 import viva.base.parsers.AbstractExprParser;
 import viva.utils.Couple;
 
 public class VivaExprParser extends AbstractExprParser {
-    private static final Map<TokenType, Integer> UNARY_OPERATOR_PRECEDENCE = new EnumMap<>(TokenType.class);
-    private static final Map<TokenType, Integer> BINARY_OPERATOR_PRECEDENCE = new EnumMap<>(TokenType.class);
-    
-    private static final boolean RASSOC = true;
-    private static final boolean LASSOC = false;
-
-    private static final Map<TokenType, Boolean> UNARY_OPERATOR_ASSOCIATIVITY = new EnumMap<>(TokenType.class);
-    private static final Map<TokenType, Boolean> BINARY_OPERATOR_ASSOCIATIVITY = new EnumMap<>(TokenType.class);
-
-    private static final TokenType[] LITERAL_TYPES = {
-        TokenType.INTEGER_LITERAL,
-        TokenType.FLOAT_LITERAL,
-        TokenType.BOOLEAN_LITERAL,
-        TokenType.CHARACTER_LITERAL,
-        TokenType.STRING_LITERAL};
-
-    private static final TokenType[] UNARY_OPERATORS = {
-        TokenType.LOGICAL_NOT,
-        TokenType.BITWISE_NOT,
-        TokenType.ADD,
-        TokenType.SUB};        
-
-    private static final TokenType[] BINARY_OPERATORS = {
-        TokenType.ADD,
-        TokenType.SUB,
-        TokenType.MUL,
-        TokenType.DIV,
-        TokenType.ASSIGN,
-        TokenType.EQUAL,
-        TokenType.NOT_EQUAL,
-        TokenType.MORE_THAN,
-        TokenType.LESS_THAN,
-        TokenType.MORE_THAN_EQUAL,
-        TokenType.LESS_THAN_EQUAL,
-        TokenType.LOGICAL_AND,
-        TokenType.LOGICAL_XOR,
-        TokenType.LOGICAL_XOR,
-        TokenType.BITWISE_AND,
-        TokenType.BITWISE_NOT,
-        TokenType.BITWISE_XOR,
-        TokenType.BITWISE_OR};
-
-    private static final TokenType[] PRIMARY_FIRSTS = {
-        TokenType.IDENTIFIER,
-        TokenType.INTEGER_LITERAL,
-        TokenType.FLOAT_LITERAL,
-        TokenType.BOOLEAN_LITERAL,
-        TokenType.CHARACTER_LITERAL,
-        TokenType.STRING_LITERAL,
-        TokenType.LOGICAL_NOT,
-        TokenType.BITWISE_NOT,
-        TokenType.ADD,
-        TokenType.SUB,
-        TokenType.WHILE,
-        TokenType.DO,
-        TokenType.IF,
-        TokenType.LBRACE,
-        TokenType.LPAREN};
+    private static final int TYPES = TokenType.values().length;
+
+    private static final byte RASSOC = 1;
+    private static final byte LASSOC = 0;
+
+    private static final byte NONE = 0;
+    private static final byte PARSELET = 1;
+    private static final byte UNARY = 2;
+    private static final byte GROUP = 3;
+    private static final byte BINARY = 4;
+    private static final byte CONDITION = 5;
+    private static final byte BRANCH = 6;
+    private static final byte STATEMENT = 7;
+
+    private static final byte THEN = 0;
+    private static final byte ELIF = 1;
+    private static final byte ELSE = 2;
+
+    private static final int DEFAULT_DEPTH = 16;
+
+    private static final byte[] PREFIX_KINDS = new byte[TYPES];
+    private static final byte[] INFIX_KINDS = new byte[TYPES];
+
+    private static final PrefixParselet[] PREFIX_PARSELETS = new PrefixParselet[TYPES];
+    private static final TokenType[] GROUP_CLOSERS = new TokenType[TYPES];
+
+    private static final int[] PREFIX_PRECEDENCE = new int[TYPES];
+    private static final int[] INFIX_PRECEDENCE = new int[TYPES];
+
+    private static final byte[] PREFIX_ASSOCIATIVITY = new byte[TYPES];
+    private static final byte[] INFIX_ASSOCIATIVITY = new byte[TYPES];
+
+    private static final TokenSet PRIMARY_FIRSTS;
+
+    private byte[] kinds;
+    private int[] precedences;
+    private Node.Expr[] operands;
+    private Token[] operators;
+    private Conditional[] conditionals;
+
+    private int depth;
+    private int suspended;
+
+    VivaStmtParser stmtParser;
 
     public VivaExprParser(VivaParser parser) {
         super(parser);
+
+        this.kinds = new byte[DEFAULT_DEPTH];
+        this.precedences = new int[DEFAULT_DEPTH];
+        this.operands = new Node.Expr[DEFAULT_DEPTH];
+        this.operators = new Token[DEFAULT_DEPTH];
+        this.conditionals = new Conditional[DEFAULT_DEPTH];
+
+        this.depth = 0;
+        this.suspended = -1;
     }
 
-    private static boolean isUnaryRightAssociative(TokenType type) {
-        return UNARY_OPERATOR_ASSOCIATIVITY.getOrDefault(type, false);
+    private static void prefix(TokenType type, PrefixParselet parselet) {
+        PREFIX_KINDS[type.ordinal()] = PARSELET;
+        PREFIX_PARSELETS[type.ordinal()] = parselet;
     }
 
-    private static boolean isBinaryRightAssociative(TokenType type) {
-        return BINARY_OPERATOR_ASSOCIATIVITY.getOrDefault(type, false);
+    private static void group(TokenType open, TokenType close) {
+        PREFIX_KINDS[open.ordinal()] = GROUP;
+        GROUP_CLOSERS[open.ordinal()] = close;
     }
 
-    private static int unaryPrecedenceOf(TokenType type) {
-        return UNARY_OPERATOR_PRECEDENCE.getOrDefault(type, -1);
+    private static void unary(TokenType type, int precedence, byte associativity) {
+        PREFIX_KINDS[type.ordinal()] = UNARY;
+        PREFIX_PRECEDENCE[type.ordinal()] = precedence;
+        PREFIX_ASSOCIATIVITY[type.ordinal()] = associativity;
     }
-    
-    private static int binaryPrecedenceOf(TokenType type) {
-        return BINARY_OPERATOR_PRECEDENCE.getOrDefault(type, -1);
+
+    private static void binary(TokenType type, int precedence, byte associativity) {
+        INFIX_KINDS[type.ordinal()] = BINARY;
+        INFIX_PRECEDENCE[type.ordinal()] = precedence;
+        INFIX_ASSOCIATIVITY[type.ordinal()] = associativity;
+    }
+
+    private void push(byte kind, int precedence, Node.Expr operand, Token operator, Conditional conditional) {
+        if (depth == kinds.length) {
+            kinds = Arrays.copyOf(kinds, depth * 2);
+            precedences = Arrays.copyOf(precedences, depth * 2);
+            operands = Arrays.copyOf(operands, depth * 2);
+            operators = Arrays.copyOf(operators, depth * 2);
+            conditionals = Arrays.copyOf(conditionals, depth * 2);
+        }
+
+        kinds[depth] = kind;
+        precedences[depth] = precedence;
+        operands[depth] = operand;
+        operators[depth] = operator;
+        conditionals[depth] = conditional;
+
+        depth++;
+    }
+
+    private void push(byte kind, int precedence, Node.Expr operand, Token operator) {
+        push(kind, precedence, operand, operator, null);
     }
 
     @Override
     public Node.Expr parseExpr() {
-        return parseExpr(0);
+        return stmtParser.parseExpression();
     }
-    
-    private Node.Expr parsePrimary() {
-        if (matches(LITERAL_TYPES)) {
-            next();
-            return new Node.Expr.Literal(read(-1));
-        } else if (matches(TokenType.IDENTIFIER)) {
-            next();
-            return new Node.Expr.Variable(read(-1));
-        } else if (matches(UNARY_OPERATORS)) {
-            next();
-            if (isUnaryRightAssociative(read(-1).type)) {
-                return new Node.Expr.Unary(read(-1), parseExpr(unaryPrecedenceOf(read(-1).type)));
-            } else {
-                return new Node.Expr.Unary(read(-1), parseExpr(unaryPrecedenceOf(read(-1).type) + 1));
-            }
-        } else if (matches(TokenType.WHILE)) {
-            return parseWhileExpr();
-        } else if (matches(TokenType.DO)) {
-            return parseUntilExpr();
-        } else if (matches(TokenType.IF)) {
-            return parseIfExpr();
-        } else if (matches(TokenType.LBRACE)) {
-            return parseBlockExpr();
-        } else if (matches(TokenType.LPAREN)) {
-            return parseExpr(0);
-        } else {
-            expected(PRIMARY_FIRSTS);
-            return null;
-        }
+
+    int mark() {
+        return depth;
     }
-    
-    private Node.Expr parseExpr(int precedence) {
-        Node.Expr lhs = parsePrimary();
 
-        while (!eos() && matches(BINARY_OPERATORS) && binaryPrecedenceOf(read().type) >= precedence) {
-            next();
+    int suspended() {
+        return suspended;
+    }
 
-            if (isBinaryRightAssociative(read(-1).type)) {
-                lhs = new Node.Expr.Binary(lhs, read(-1), parseExpr(binaryPrecedenceOf(read(-1).type)));
-            } else {
-                lhs = new Node.Expr.Binary(lhs, read(-1), parseExpr(binaryPrecedenceOf(read(-1).type) + 1));
-            }
-        }
-        return lhs;
+    Node.Expr parse(int base) {
+        return parse(base, 0, null, false);
     }
 
-    private Node.Expr.Block parseBlockExpr() {
-        List<Node.Stmt> body = new ArrayList<>();
-        
-        enterScope();
-        expects(TokenType.LBRACE);
-        while (!matches(TokenType.RBRACE)) {
-            body.add(parseStmt());
-        }
-        expects(TokenType.RBRACE);
+    Node.Expr resume(int base, int precedence, Node.Expr value) {
+        return parse(base, precedence, value, true);
+    }
 
-        Environment env = getLocalEnv();
-        closeScope();
+    private Node.Expr parse(int base, int precedence, Node.Expr value, boolean resumed) {
+        suspended = -1;
 
-        return new Node.Expr.Block(env, body);
-    }
+        while (true) {
+            if (!resumed) {
+                int ordinal = eos() ? -1 : type().ordinal();
+                byte kind = ordinal < 0 ? NONE : PREFIX_KINDS[ordinal];
+
+                if (kind == UNARY) {
+                    next();
+                    push(UNARY, precedence, null, read(-1));
+
+                    if (PREFIX_ASSOCIATIVITY[ordinal] == RASSOC) {
+                        precedence = PREFIX_PRECEDENCE[ordinal];
+                    } else {
+                        precedence = PREFIX_PRECEDENCE[ordinal] + 1;
+                    }
+                    continue;
+                } else if (kind == GROUP) {
+                    next();
+                    push(GROUP, precedence, null, read(-1));
+
+                    precedence = 0;
+                    continue;
+                } else if (kind == CONDITION) {
+                    next();
+                    expects(TokenType.LPAREN);
+                    push(CONDITION, precedence, null, null, new Conditional());
+
+                    precedence = 0;
+                    continue;
+                } else if (kind == STATEMENT) {
+                    suspended = precedence;
+                    return null;
+                }
 
-    private Node.Expr.While parseWhileExpr() {
-        expects(TokenType.WHILE);
-        expects(TokenType.LPAREN);
-        
-        Node.Expr condition = parseExpr();
-        
-        expects(TokenType.RPAREN);
-        
-        Node.Stmt body = parseStmt();
-         
-        return new Node.Expr.While(condition, body);
+                if (kind == PARSELET) {
+                    value = PREFIX_PARSELETS[ordinal].parse(this);
+                } else {
+                    expected(PRIMARY_FIRSTS);
+                    value = null;
+                }
+            }
+
+            resumed = false;
+
+            while (true) {
+                int ordinal = eos() ? -1 : type().ordinal();
+
+                if (ordinal >= 0 && INFIX_KINDS[ordinal] == BINARY && INFIX_PRECEDENCE[ordinal] >= precedence) {
+                    next();
+                    push(BINARY, precedence, value, read(-1));
+
+                    if (INFIX_ASSOCIATIVITY[ordinal] == RASSOC) {
+                        precedence = INFIX_PRECEDENCE[ordinal];
+                    } else {
+                        precedence = INFIX_PRECEDENCE[ordinal] + 1;
+                    }
+                    break;
+                }
+
+                if (depth == base) {
+                    return value;
+                }
+
+                depth--;
+
+                Token operator = operators[depth];
+                Node.Expr operand = operands[depth];
+                Conditional conditional = conditionals[depth];
+
+                operators[depth] = null;
+                operands[depth] = null;
+                conditionals[depth] = null;
+
+                precedence = precedences[depth];
+
+                if (kinds[depth] == UNARY) {
+                    value = new Node.Expr.Unary(operator, value);
+                } else if (kinds[depth] == GROUP) {
+                    expects(GROUP_CLOSERS[operator.type.ordinal()]);
+                } else if (kinds[depth] == BINARY) {
+                    value = new Node.Expr.Binary(operand, operator, value);
+                } else if (kinds[depth] == CONDITION) {
+                    expects(TokenType.RPAREN);
+
+                    if (conditional.stage == THEN) {
+                        conditional.condition = value;
+                    } else {
+                        conditional.elifCondition = value;
+                    }
+
+                    push(BRANCH, precedence, null, null, conditional);
+
+                    precedence = 0;
+                    break;
+                } else {
+                    if (conditional.stage == THEN) {
+                        conditional.body = value;
+                    } else if (conditional.stage == ELIF) {
+                        conditional.elifs.add(new Couple<>(conditional.elifCondition, value));
+                    } else {
+                        conditional.elseBody = value;
+                    }
+
+                    if (conditional.stage != ELSE && matches(TokenType.ELIF)) {
+                        next();
+                        expects(TokenType.LPAREN);
+
+                        conditional.stage = ELIF;
+                        push(CONDITION, precedence, null, null, conditional);
+
+                        precedence = 0;
+                        break;
+                    } else if (conditional.stage != ELSE && matches(TokenType.ELSE)) {
+                        next();
+
+                        conditional.stage = ELSE;
+                        push(BRANCH, precedence, null, null, conditional);
+
+                        precedence = 0;
+                        break;
+                    }
+
+                    value = new Node.Expr.If(conditional.condition, conditional.body, conditional.elifs, conditional.elseBody);
+                }
+            }
+        }
     }
-    
-    private Node.Expr.Until parseUntilExpr() {
-        expects(TokenType.DO);
-        
-        Node.Stmt body = parseStmt();
 
-        expects(TokenType.UNTIL);
+    private Node.Expr.Literal parseLiteralExpr() {
+        next();
+        return new Node.Expr.Literal(read(-1));
+    }
 
-        expects(TokenType.LPAREN);
+    private Node.Expr.Variable parseVariableExpr() {
+        next();
+        return new Node.Expr.Variable(read(-1));
+    }
 
-        Node.Expr condition = parseExpr();
-                            
-        expects(TokenType.RPAREN);                    
-                        
-        return new Node.Expr.Until(condition, body);
+    @FunctionalInterface
+    private interface PrefixParselet {
+        Node.Expr parse(VivaExprParser parser);
     }
 
-    private Node.Expr.If parseIfExpr() {
-        expects(TokenType.IF);
-        expects(TokenType.LPAREN);
-        
-        Node.Expr condition = parseExpr();
-        
-        expects(TokenType.RPAREN);
-        
-        Node.Expr body = parseExpr();
-        
-        List<Couple<Node.Expr, Node.Expr>> elifs = new ArrayList<>();
-        while (matches(TokenType.ELIF)) { 
-            expects(TokenType.ELIF);
-            expects(TokenType.LPAREN);
-            
-            Node.Expr elifCondition = parseExpr();
-            
-            expects(TokenType.RPAREN);
-
-            Node.Expr elifBody = parseExpr();
-
-            elifs.add(new Couple<>(elifCondition, elifBody));
-        }
-        
-        Node.Expr elseBody = null;
-        
-        if (matches(TokenType.ELSE)) {
-            next();
-            
-            elseBody = parseExpr();
-        }
+    private static class Conditional {
+        private Node.Expr condition;
+        private Node.Expr body;
+
+        private final List<Couple<Node.Expr, Node.Expr>> elifs = new ArrayList<>();
+        private Node.Expr elifCondition;
 
-        return new Node.Expr.If(condition, body, elifs, elseBody);
+        private Node.Expr elseBody;
+
+        private byte stage = THEN;
     }
 
     static {
-        UNARY_OPERATOR_PRECEDENCE.put(TokenType.ADD,                12);
-        UNARY_OPERATOR_PRECEDENCE.put(TokenType.SUB,                12);
-        UNARY_OPERATOR_PRECEDENCE.put(TokenType.LOGICAL_NOT,        12);
-        UNARY_OPERATOR_PRECEDENCE.put(TokenType.BITWISE_NOT,        12);
-
-        BINARY_OPERATOR_PRECEDENCE.put(TokenType.MUL,               11);
-        BINARY_OPERATOR_PRECEDENCE.put(TokenType.DIV,               11);
-        BINARY_OPERATOR_PRECEDENCE.put(TokenType.ADD,               10);
-        BINARY_OPERATOR_PRECEDENCE.put(TokenType.SUB,               10);
-        BINARY_OPERATOR_PRECEDENCE.put(TokenType.MORE_THAN,         8);
-        BINARY_OPERATOR_PRECEDENCE.put(TokenType.MORE_THAN_EQUAL,   8);
-        BINARY_OPERATOR_PRECEDENCE.put(TokenType.LESS_THAN,         8);
-        BINARY_OPERATOR_PRECEDENCE.put(TokenType.LESS_THAN_EQUAL,   8);
-        BINARY_OPERATOR_PRECEDENCE.put(TokenType.EQUAL,             7);
-        BINARY_OPERATOR_PRECEDENCE.put(TokenType.NOT_EQUAL,         7);
-        BINARY_OPERATOR_PRECEDENCE.put(TokenType.BITWISE_AND,       6);
-        BINARY_OPERATOR_PRECEDENCE.put(TokenType.BITWISE_XOR,       5);
-        BINARY_OPERATOR_PRECEDENCE.put(TokenType.BITWISE_OR,        4);
-        BINARY_OPERATOR_PRECEDENCE.put(TokenType.LOGICAL_AND,       3);
-        BINARY_OPERATOR_PRECEDENCE.put(TokenType.LOGICAL_XOR,       2);
-        BINARY_OPERATOR_PRECEDENCE.put(TokenType.LOGICAL_OR,        1);
-        BINARY_OPERATOR_PRECEDENCE.put(TokenType.ASSIGN,            0);
-
-        UNARY_OPERATOR_ASSOCIATIVITY.put(TokenType.ADD,                 LASSOC);
-        UNARY_OPERATOR_ASSOCIATIVITY.put(TokenType.SUB,                 LASSOC);
-        UNARY_OPERATOR_ASSOCIATIVITY.put(TokenType.LOGICAL_NOT,         LASSOC);
-        UNARY_OPERATOR_ASSOCIATIVITY.put(TokenType.BITWISE_NOT,         LASSOC);
-
-        BINARY_OPERATOR_ASSOCIATIVITY.put(TokenType.MUL,                LASSOC);
-        BINARY_OPERATOR_ASSOCIATIVITY.put(TokenType.DIV,                LASSOC);
-        BINARY_OPERATOR_ASSOCIATIVITY.put(TokenType.ADD,                LASSOC);
-        BINARY_OPERATOR_ASSOCIATIVITY.put(TokenType.SUB,                LASSOC);
-        BINARY_OPERATOR_ASSOCIATIVITY.put(TokenType.MORE_THAN,          LASSOC);
-        BINARY_OPERATOR_ASSOCIATIVITY.put(TokenType.MORE_THAN_EQUAL,    LASSOC);
-        BINARY_OPERATOR_ASSOCIATIVITY.put(TokenType.LESS_THAN,          LASSOC);
-        BINARY_OPERATOR_ASSOCIATIVITY.put(TokenType.LESS_THAN_EQUAL,    LASSOC);
-        BINARY_OPERATOR_ASSOCIATIVITY.put(TokenType.EQUAL,              LASSOC);
-        BINARY_OPERATOR_ASSOCIATIVITY.put(TokenType.NOT_EQUAL,          LASSOC);
-        BINARY_OPERATOR_ASSOCIATIVITY.put(TokenType.BITWISE_AND,        LASSOC);
-        BINARY_OPERATOR_ASSOCIATIVITY.put(TokenType.BITWISE_XOR,        LASSOC);
-        BINARY_OPERATOR_ASSOCIATIVITY.put(TokenType.BITWISE_OR,         LASSOC);
-        BINARY_OPERATOR_ASSOCIATIVITY.put(TokenType.LOGICAL_AND,        LASSOC);
-        BINARY_OPERATOR_ASSOCIATIVITY.put(TokenType.LOGICAL_XOR,        LASSOC);
-        BINARY_OPERATOR_ASSOCIATIVITY.put(TokenType.LOGICAL_OR,         LASSOC);
-        BINARY_OPERATOR_ASSOCIATIVITY.put(TokenType.ASSIGN,             RASSOC);
+        prefix(TokenType.INTEGER_LITERAL,   VivaExprParser::parseLiteralExpr);
+        prefix(TokenType.FLOAT_LITERAL,     VivaExprParser::parseLiteralExpr);
+        prefix(TokenType.BOOLEAN_LITERAL,   VivaExprParser::parseLiteralExpr);
+        prefix(TokenType.CHARACTER_LITERAL, VivaExprParser::parseLiteralExpr);
+        prefix(TokenType.STRING_LITERAL,    VivaExprParser::parseLiteralExpr);
+        prefix(TokenType.IDENTIFIER,        VivaExprParser::parseVariableExpr);
+
+        group(TokenType.LPAREN,             TokenType.RPAREN);
+
+        PREFIX_KINDS[TokenType.IF.ordinal()] = CONDITION;
+        PREFIX_KINDS[TokenType.WHILE.ordinal()] = STATEMENT;
+        PREFIX_KINDS[TokenType.DO.ordinal()] = STATEMENT;
+        PREFIX_KINDS[TokenType.LBRACE.ordinal()] = STATEMENT;
+
+        unary(TokenType.ADD,                12, LASSOC);
+        unary(TokenType.SUB,                12, LASSOC);
+        unary(TokenType.LOGICAL_NOT,        12, LASSOC);
+        unary(TokenType.BITWISE_NOT,        12, LASSOC);
+
+        binary(TokenType.MUL,               11, LASSOC);
+        binary(TokenType.DIV,               11, LASSOC);
+        binary(TokenType.ADD,               10, LASSOC);
+        binary(TokenType.SUB,               10, LASSOC);
+        binary(TokenType.MORE_THAN,         8,  LASSOC);
+        binary(TokenType.MORE_THAN_EQUAL,   8,  LASSOC);
+        binary(TokenType.LESS_THAN,         8,  LASSOC);
+        binary(TokenType.LESS_THAN_EQUAL,   8,  LASSOC);
+        binary(TokenType.EQUAL,             7,  LASSOC);
+        binary(TokenType.NOT_EQUAL,         7,  LASSOC);
+        binary(TokenType.BITWISE_AND,       6,  LASSOC);
+        binary(TokenType.BITWISE_XOR,       5,  LASSOC);
+        binary(TokenType.BITWISE_OR,        4,  LASSOC);
+        binary(TokenType.LOGICAL_AND,       3,  LASSOC);
+        binary(TokenType.LOGICAL_XOR,       2,  LASSOC);
+        binary(TokenType.LOGICAL_OR,        1,  LASSOC);
+        binary(TokenType.ASSIGN,            0,  RASSOC);
+
+        TokenSet firsts = TokenSet.EMPTY;
+        for (TokenType type : TokenType.values()) {
+            if (PREFIX_KINDS[type.ordinal()] != NONE) {
+                firsts = firsts.with(type);
+            }
+        }
+        PRIMARY_FIRSTS = firsts;
     }
 }
@@ -2,21 +2,66 @@ package viva.core.parsers;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
-import viva.base.common.Token;
+import viva.base.common.Diagnostics;
+import viva.base.common.Edit;
+import viva.base.common.Environment;
+import viva.base.common.TokenBuffer;
+import viva.base.common.TokenCursor;
+import viva.base.common.TokenSet;
+import viva.base.common.TokenStream;
+import viva.base.common.TokenType;
+import viva.base.common.ast.Arena;
 import viva.base.common.ast.Node;
+import viva.base.common.ast.Spans;
 import viva.base.parsers.AbstractParser;
 
 public class VivaParser extends AbstractParser {
-    public VivaParser(List<Token> input) {
-        super(input, new VivaExprParser(null), new VivaStmtParser(null));
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 14;
+
+    private static final TokenSet BODY_FOLLOWS = TokenSet.of(
+        TokenType.SEMI,
+        TokenType.RBRACE,
+        TokenType.LET);
+
+    private final TokenBuffer buffer;
+
+    private Diagnostics deferred;
+
+    private VivaParser(TokenStream input, TokenBuffer buffer, Diagnostics diagnostics, Environment scope, VivaExprParser exprParser) {
+        super(input, diagnostics, scope, exprParser, new VivaStmtParser(null, exprParser));
+
+        this.buffer = buffer;
+    }
+
+    private VivaParser(TokenStream input, TokenBuffer buffer, Diagnostics diagnostics, Environment scope) {
+        this(input, buffer, diagnostics, scope, new VivaExprParser(null));
+    }
+
+    public VivaParser(TokenStream input, Diagnostics diagnostics) {
+        this(input, null, diagnostics, null);
+    }
+
+    public VivaParser(TokenStream input) {
+        this(input, new Diagnostics());
+    }
+
+    public VivaParser(TokenBuffer input, Diagnostics diagnostics) {
+        this(new TokenCursor(input), input, diagnostics, null);
+    }
+
+    public VivaParser(TokenBuffer input) {
+        this(input, new Diagnostics());
     }
 
     private Node.Program parseProg() {
         List<Node.Stmt> body = new ArrayList<>();
         
-        while (!eos()) {
+        while (!eos() && !getDiagnostics().isFull()) {
             body.add(parseStmt());
+            synchronize();
         }
 
         return new Node.Program(getGlobalEnv(), body);
@@ -26,4 +71,384 @@ public class VivaParser extends AbstractParser {
     public void parse() {
         setOutput(parseProg());
     }
+
+    public Arena parseArena() {
+        if (buffer == null) {
+            throw new IllegalStateException("Parsing into an arena needs a token buffer");
+        }
+
+        Arena arena = new Arena(buffer);
+
+        while (!eos() && !getDiagnostics().isFull()) {
+            arena.add(parseStmt());
+            synchronize();
+        }
+
+        arena.close(getGlobalEnv());
+
+        return arena;
+    }
+
+    public void deferBodies() {
+        deferBodies(getDiagnostics());
+    }
+
+    private void deferBodies(Diagnostics diagnostics) {
+        deferred = diagnostics;
+    }
+
+    @Override
+    protected Node.Expr deferBody() {
+        if (deferred == null || buffer == null || !matches(TokenType.LBRACE)) {
+            return null;
+        }
+
+        int length = 0;
+        int depth = 0;
+
+        do {
+            TokenType type = type(length);
+
+            if (type == null) {
+                return null;
+            } else if (type == TokenType.LBRACE) {
+                depth++;
+            } else if (type == TokenType.RBRACE) {
+                depth--;
+            }
+
+            length++;
+        } while (depth > 0);
+
+        if (!eos(length) && !matches(length, BODY_FOLLOWS)) {
+            return null;
+        }
+
+        int start = offset(0);
+        int end = offset(length - 1) + length(length - 1);
+
+        for (int i = 0; i < length; i++) {
+            next();
+        }
+
+        TokenBuffer tokens = buffer;
+        Environment env = getLocalEnv();
+        Diagnostics diagnostics = deferred;
+
+        return new Node.Expr.Deferred(() -> parseBody(tokens, start, end, env, diagnostics));
+    }
+
+    private static Node.Expr parseBody(TokenBuffer tokens, int start, int end, Environment env, Diagnostics diagnostics) {
+        VivaParser parser = new VivaParser(new TokenCursor(tokens, tokens.indexAt(start), tokens.indexAt(end)), tokens,
+            new Diagnostics(diagnostics.getMaxErrors()), env);
+
+        Node.Expr body = parser.parseExpr();
+
+        synchronized (diagnostics) {
+            diagnostics.addAll(parser.getDiagnostics());
+        }
+
+        return body;
+    }
+
+    private List<Integer> split(int chunkSize) {
+        List<Integer> bounds = new ArrayList<>();
+
+        bounds.add(0);
+
+        int depth = 0;
+
+        for (int i = 1; i < buffer.size(); i++) {
+            TokenType type = buffer.type(i - 1);
+
+            if (type == TokenType.LBRACE) {
+                depth++;
+            } else if (type == TokenType.RBRACE) {
+                depth--;
+            }
+
+            if (depth == 0 && buffer.type(i) == TokenType.LET
+                    && (type == TokenType.SEMI || type == TokenType.RBRACE)
+                    && i - bounds.get(bounds.size() - 1) >= chunkSize) {
+                bounds.add(i);
+            }
+        }
+
+        bounds.add(buffer.size());
+
+        return bounds;
+    }
+
+    public void parse(ForkJoinPool pool, int chunkSize) {
+        if (buffer == null) {
+            parse();
+            return;
+        }
+
+        List<Integer> bounds = split(chunkSize);
+
+        if (bounds.size() <= 2) {
+            parse();
+            return;
+        }
+
+        List<ForkJoinTask<VivaParser>> chunks = new ArrayList<>();
+
+        for (int i = 0; i < bounds.size() - 1; i++) {
+            VivaParser chunk = new VivaParser(new TokenCursor(buffer, bounds.get(i), bounds.get(i + 1)), buffer,
+                new Diagnostics(getDiagnostics().getMaxErrors()), getGlobalEnv());
+
+            if (getSpans() != null) {
+                chunk.trackSpans();
+            }
+
+            if (deferred != null) {
+                chunk.deferBodies(deferred);
+            }
+
+            chunks.add(pool.submit(() -> {
+                chunk.parse();
+                return chunk;
+            }));
+        }
+
+        List<VivaParser> parsed = new ArrayList<>();
+
+        for (int i = 0; i < chunks.size(); i++) {
+            VivaParser chunk = chunks.get(i).join();
+
+            if (!chunk.getDiagnostics().getEntries().isEmpty()) {
+                for (int j = i + 1; j < chunks.size(); j++) {
+                    chunks.get(j).cancel(false);
+                }
+
+                parse();
+                return;
+            }
+
+            parsed.add(chunk);
+        }
+
+        List<Node.Stmt> body = new ArrayList<>();
+
+        for (VivaParser chunk : parsed) {
+            Node.Program program = (Node.Program) chunk.getOutput();
+
+            body.addAll(program.body);
+
+            if (getSpans() != null) {
+                getSpans().addAll(chunk.getSpans());
+            }
+        }
+
+        setOutput(new Node.Program(getGlobalEnv(), body));
+    }
+
+    public void parse(ForkJoinPool pool) {
+        parse(pool, DEFAULT_CHUNK_SIZE);
+    }
+
+    private static boolean isBoundary(TokenBuffer tokens, int index, int offset) {
+        return index == 0 || tokens.offset(index - 1) + tokens.length(index - 1) <= offset;
+    }
+
+    private VivaParser fragment(TokenBuffer tokens, int start, int end, Environment scope) {
+        int first = tokens.indexAt(start);
+        int last = tokens.indexAt(end);
+
+        if (!isBoundary(tokens, first, start) || !isBoundary(tokens, last, end)) {
+            return null;
+        }
+
+        VivaParser fragment = new VivaParser(new TokenCursor(tokens, first, last), tokens,
+            new Diagnostics(getDiagnostics().getMaxErrors()), scope);
+
+        fragment.trackSpans();
+
+        return fragment;
+    }
+
+    private Node.Stmt reparse(int index, Node.Stmt stmt, Environment env, TokenBuffer tokens, Edit edit, Splice splice) {
+        Spans spans = getSpans();
+
+        int from = edit.offset;
+        int to = edit.offset + edit.deleted;
+
+        Environment scope = null;
+        List<Node.Stmt> body = null;
+
+        if (stmt instanceof Node.Stmt.Block) {
+            scope = ((Node.Stmt.Block) stmt).env;
+            body = ((Node.Stmt.Block) stmt).body;
+        } else if (stmt instanceof Node.Stmt.Define.Proc && ((Node.Stmt.Define.Proc) stmt).body instanceof Node.Expr.Block) {
+            scope = ((Node.Expr.Block) ((Node.Stmt.Define.Proc) stmt).body).env;
+            body = ((Node.Expr.Block) ((Node.Stmt.Define.Proc) stmt).body).body;
+        }
+
+        if (body != null) {
+            for (int i = 0; i < body.size(); i++) {
+                Node.Stmt child = body.get(i);
+
+                if (!spans.contains(index, child) || spans.start(index, child) >= from || spans.end(index, child) <= to) {
+                    continue;
+                }
+
+                Node.Stmt result = reparse(index, child, scope, tokens, edit, splice);
+
+                if (result == null) {
+                    break;
+                }
+
+                List<Node.Stmt> copy = new ArrayList<>(body);
+                copy.set(i, result);
+
+                Node.Stmt rebuilt;
+
+                if (stmt instanceof Node.Stmt.Block) {
+                    rebuilt = new Node.Stmt.Block(scope, copy);
+                } else {
+                    Node.Stmt.Define.Proc proc = (Node.Stmt.Define.Proc) stmt;
+
+                    rebuilt = new Node.Stmt.Define.Proc(proc.identifier, proc.returnType, proc.parameters,
+                        new Node.Expr.Block(scope, copy));
+                }
+
+                splice.moved.add(stmt);
+                splice.moved.add(rebuilt);
+
+                return rebuilt;
+            }
+        }
+
+        if (stmt == spans.root(index)) {
+            return null;
+        }
+
+        VivaParser fragment = fragment(tokens, spans.start(index, stmt),
+            spans.end(index, stmt) + tokens.getSource().length() - getSource().length(), env);
+
+        if (fragment == null) {
+            return null;
+        }
+
+        Node.Stmt result = fragment.parseStmt();
+
+        if (result == null || !fragment.eos() || !fragment.getDiagnostics().getEntries().isEmpty()) {
+            return null;
+        }
+
+        splice.leaf = stmt;
+        splice.spans = fragment.getSpans();
+
+        return result;
+    }
+
+    private static boolean isUnchanged(Node.Stmt old, Spans spans, int index, Node.Stmt stmt, Spans reparsed, int position, int delta) {
+        return old != null && stmt != null && old.getClass() == stmt.getClass()
+            && reparsed.start(position) == spans.start(index) + delta
+            && reparsed.end(position) == spans.end(index) + delta;
+    }
+
+    public VivaParser reparse(TokenBuffer tokens, Edit edit) {
+        VivaParser parser = new VivaParser(tokens, new Diagnostics(getDiagnostics().getMaxErrors()));
+
+        parser.trackSpans();
+
+        Node.Program program = (Node.Program) getOutput();
+        Spans spans = getSpans();
+
+        if (spans == null || program == null || getErrors() != 0 || program.body.isEmpty() || spans.size() != program.body.size()) {
+            parser.parse();
+            return parser;
+        }
+
+        int from = edit.offset;
+        int to = edit.offset + edit.deleted;
+        int delta = tokens.getSource().length() - getSource().length();
+
+        List<Node.Stmt> body = program.body;
+
+        int first = 0;
+        int high = body.size();
+
+        while (first < high) {
+            int mid = (first + high) >>> 1;
+
+            if (spans.end(mid) < from) {
+                first = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        if (first < body.size() && spans.start(first) < from && to < spans.end(first)) {
+            Splice splice = new Splice();
+
+            Node.Stmt stmt = reparse(first, body.get(first), program.env, tokens, edit, splice);
+
+            if (stmt != null) {
+                List<Node.Stmt> copy = new ArrayList<>(body);
+                copy.set(first, stmt);
+
+                parser.setSpans(spans.rebuild(first, stmt, splice.leaf, splice.spans, splice.moved, delta));
+                parser.setOutput(new Node.Program(program.env, copy));
+
+                return parser;
+            }
+        }
+
+        int last = first;
+
+        while (last < body.size() && spans.start(last) <= to) {
+            last++;
+        }
+
+        first = Math.max(first - 1, 0);
+        last = Math.min(last, body.size() - 1);
+
+        int start = first == 0 ? 0 : spans.start(first);
+        int end = last == body.size() - 1 ? getSource().length() : spans.end(last);
+
+        VivaParser fragment = fragment(tokens, start, end + delta, program.env);
+
+        if (fragment != null) {
+            fragment.parse();
+        }
+
+        if (fragment == null || fragment.getErrors() != 0 || !fragment.getDiagnostics().getEntries().isEmpty()) {
+            parser.parse();
+            return parser;
+        }
+
+        List<Node.Stmt> reparsed = new ArrayList<>(((Node.Program) fragment.getOutput()).body);
+        Spans fragmentSpans = fragment.getSpans();
+
+        int tail = reparsed.size() - 1;
+
+        if (tail > 0 && spans.end(first) < from && isUnchanged(body.get(first), spans, first, reparsed.get(0), fragmentSpans, 0, 0)) {
+            reparsed.set(0, body.get(first));
+            fragmentSpans.replace(0, spans, first, 0);
+        }
+
+        if (tail > 0 && spans.start(last) > to && isUnchanged(body.get(last), spans, last, reparsed.get(tail), fragmentSpans, tail, delta)) {
+            reparsed.set(tail, body.get(last));
+            fragmentSpans.replace(tail, spans, last, delta);
+        }
+
+        List<Node.Stmt> copy = new ArrayList<>(body.subList(0, first));
+        copy.addAll(reparsed);
+        copy.addAll(body.subList(last + 1, body.size()));
+
+        parser.setSpans(spans.splice(first, last + 1, fragment.getSpans(), delta));
+        parser.setOutput(new Node.Program(program.env, copy));
+
+        return parser;
+    }
+
+    private static class Splice {
+        private Node leaf;
+        private Spans spans;
+
+        private final List<Node> moved = new ArrayList<>();
+    }
 }
@@ -1,83 +1,351 @@
 package viva.core.parsers;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import viva.base.common.Environment;
 import viva.base.common.Token;
+import viva.base.common.TokenSet;
 import viva.base.common.TokenType;
 import viva.base.common.ast.Node;
 import viva.base.parsers.AbstractStmtParser;
 import viva.utils.Couple;
 
 public class VivaStmtParser extends AbstractStmtParser {
-    public VivaStmtParser(VivaParser parser) {
+    private static final TokenSet TYPE_FIRSTS = TokenSet.of(
+        TokenType.PROC,
+        TokenType.CLASS,
+        TokenType.STRUCT,
+        TokenType.IDENTIFIER);
+
+    private static final TokenSet STMT_FIRSTS = TokenSet.of(
+        TokenType.LBRACE,
+        TokenType.LET,
+        TokenType.RETURN,
+        TokenType.CONTINUE,
+        TokenType.BREAK,
+        TokenType.WHILE,
+        TokenType.DO,
+        TokenType.IF,
+        TokenType.IDENTIFIER);
+
+    private static final TokenSet SYNC_TERMINATORS = TokenSet.of(
+        TokenType.SEMI);
+
+    private static final TokenSet SYNC_ANCHORS = TokenSet.of(
+        TokenType.RBRACE,
+        TokenType.LET);
+
+    private static final byte NONE = -1;
+    private static final byte BLOCK = 0;
+    private static final byte WHILE = 1;
+    private static final byte UNTIL = 2;
+    private static final byte IF = 3;
+    private static final byte LET = 4;
+    private static final byte TYPE = 5;
+    private static final byte PROC = 6;
+    private static final byte RETURN = 7;
+    private static final byte EXPR = 8;
+    private static final byte BLOCK_EXPR = 9;
+    private static final byte WHILE_EXPR = 10;
+    private static final byte UNTIL_EXPR = 11;
+
+    private static final byte THEN = 0;
+    private static final byte ELIF = 1;
+    private static final byte ELSE = 2;
+    private static final byte ELIF_CONDITION = 3;
+
+    private static final byte PARSE_STMT = 0;
+    private static final byte PARSE_EXPR = 1;
+    private static final byte CLOSE_BLOCK = 2;
+    private static final byte REDUCE_STMT = 3;
+    private static final byte REDUCE_EXPR = 4;
+    private static final byte RESUME_EXPR = 5;
+
+    private final VivaExprParser exprParser;
+
+    public VivaStmtParser(VivaParser parser, VivaExprParser exprParser) {
         super(parser);
+
+        this.exprParser = exprParser;
+
+        exprParser.stmtParser = this;
+    }
+
+    @Override
+    public void synchronize() {
+        synchronize(SYNC_TERMINATORS, SYNC_ANCHORS);
     }
 
+    @Override
     public Node.Stmt parseStmt() {
-        switch (read().type) {
-            case LBRACE: {
-                return parseBlockStmt();           
-            } case LET: {
-                return parseDefinitionStmt();
-            } case RETURN: {
-                return parseReturnStmt();        
-            } case CONTINUE: {
-                return parseContinueStmt();
-            } case BREAK: {
-                return parseBreakStmt();
-            } case WHILE: {
-                return parseWhileStmt();
-            } case DO: {
-                return parseUntilStmt();
-            } case IF: {
-                return parseIfStmt();
-            } case IDENTIFIER: {
-                return new Node.Stmt.Expr(parseExpr());
-            } default: {
-                expected(
-                    TokenType.LBRACE,
-                    TokenType.LET,
-                    TokenType.RETURN,
-                    TokenType.CONTINUE,
-                    TokenType.BREAK,
-                    TokenType.WHILE,
-                    TokenType.DO,
-                    TokenType.IF,
-                    TokenType.IDENTIFIER);
-                next();
-                return null;
-            }
-        }
+        return (Node.Stmt) parse(PARSE_STMT);
     }
 
-    private Node.Stmt.Block parseBlockStmt() {
-        List<Node.Stmt> body = new ArrayList<>();
-        
-        enterScope();
-        expects(TokenType.LBRACE);
-        while (!matches(TokenType.RBRACE)) {
-            body.add(parseStmt());
-        }
-        expects(TokenType.RBRACE);
+    Node.Expr parseExpression() {
+        return (Node.Expr) parse(PARSE_EXPR);
+    }
 
-        Environment env = getLocalEnv();
-        closeScope();
+    private Node parse(byte step) {
+        Deque<Frame> frames = new ArrayDeque<>();
 
-        return new Node.Stmt.Block(env, body);
-    }
-    
-    private Node.Stmt.Return parseReturnStmt() {
-        expects(TokenType.RETURN);
-                
-        Node.Expr value = parseExpr();
+        Node.Stmt stmt = null;
+        Node.Expr value = null;
 
-        expects(TokenType.SEMI);
-                
-        return new Node.Stmt.Return(value);
+        int start = 0;
+        int length = 0;
+
+        int base = 0;
+
+        while (true) {
+            if (step == PARSE_STMT) {
+                start = offset(0);
+                length = length(0);
+
+                step = REDUCE_STMT;
+
+                if (eos()) {
+                    expected(STMT_FIRSTS);
+                    stmt = null;
+                } else if (matches(TokenType.LBRACE)) {
+                    enterScope();
+                    next();
+
+                    frames.push(new Frame(BLOCK, start, length));
+
+                    step = !eos() && !matches(TokenType.RBRACE) ? PARSE_STMT : CLOSE_BLOCK;
+                } else if (matches(TokenType.WHILE)) {
+                    next();
+                    expects(TokenType.LPAREN);
+
+                    frames.push(new Frame(WHILE, start, length));
+
+                    step = PARSE_EXPR;
+                } else if (matches(TokenType.DO)) {
+                    next();
+
+                    frames.push(new Frame(UNTIL, start, length));
+
+                    step = PARSE_STMT;
+                } else if (matches(TokenType.IF)) {
+                    next();
+                    expects(TokenType.LPAREN);
+
+                    frames.push(new Frame(IF, start, length));
+
+                    step = PARSE_EXPR;
+                } else if (matches(TokenType.LET)) {
+                    Frame frame = new Frame(NONE, start, length);
+
+                    stmt = parseDefinitionStmt(frame);
+
+                    if (frame.kind != NONE) {
+                        frames.push(frame);
+
+                        step = PARSE_EXPR;
+                    }
+                } else if (matches(TokenType.RETURN)) {
+                    next();
+
+                    frames.push(new Frame(RETURN, start, length));
+
+                    step = PARSE_EXPR;
+                } else if (matches(TokenType.IDENTIFIER)) {
+                    frames.push(new Frame(EXPR, start, length));
+
+                    step = PARSE_EXPR;
+                } else if (matches(TokenType.CONTINUE)) {
+                    stmt = parseContinueStmt();
+                } else if (matches(TokenType.BREAK)) {
+                    stmt = parseBreakStmt();
+                } else {
+                    expected(STMT_FIRSTS);
+                    next();
+                    stmt = null;
+                }
+            } else if (step == PARSE_EXPR) {
+                base = exprParser.mark();
+                value = exprParser.parse(base);
+
+                step = RESUME_EXPR;
+            } else if (step == RESUME_EXPR) {
+                int precedence = exprParser.suspended();
+
+                step = REDUCE_EXPR;
+
+                if (precedence >= 0) {
+                    Frame frame = new Frame(matches(TokenType.LBRACE) ? BLOCK_EXPR : matches(TokenType.WHILE) ? WHILE_EXPR : UNTIL_EXPR,
+                        offset(0), length(0));
+
+                    frame.base = base;
+                    frame.precedence = precedence;
+
+                    frames.push(frame);
+
+                    if (frame.kind == BLOCK_EXPR) {
+                        enterScope();
+                        expects(TokenType.LBRACE);
+
+                        step = !eos() && !matches(TokenType.RBRACE) ? PARSE_STMT : CLOSE_BLOCK;
+                    } else if (frame.kind == WHILE_EXPR) {
+                        expects(TokenType.WHILE);
+                        expects(TokenType.LPAREN);
+
+                        step = PARSE_EXPR;
+                    } else {
+                        expects(TokenType.DO);
+
+                        step = PARSE_STMT;
+                    }
+                }
+            } else if (step == CLOSE_BLOCK) {
+                Frame frame = frames.pop();
+
+                expects(TokenType.RBRACE);
+
+                Environment env = getLocalEnv();
+                closeScope();
+
+                if (frame.kind == BLOCK) {
+                    stmt = new Node.Stmt.Block(env, frame.stmts);
+
+                    start = frame.start;
+                    length = frame.length;
+
+                    step = REDUCE_STMT;
+                } else {
+                    base = frame.base;
+                    value = exprParser.resume(base, frame.precedence, new Node.Expr.Block(env, frame.stmts));
+
+                    step = RESUME_EXPR;
+                }
+            } else if (step == REDUCE_STMT) {
+                if (frames.isEmpty()) {
+                    return stmt;
+                }
+
+                Frame frame = frames.peek();
+
+                record(stmt, start, length);
+
+                if (frame.kind == BLOCK || frame.kind == BLOCK_EXPR) {
+                    frame.stmts.add(stmt);
+                    synchronize();
+
+                    step = !eos() && !matches(TokenType.RBRACE) ? PARSE_STMT : CLOSE_BLOCK;
+                } else if (frame.kind == WHILE) {
+                    frames.pop();
+
+                    stmt = new Node.Stmt.While(frame.condition, stmt);
+
+                    start = frame.start;
+                    length = frame.length;
+                } else if (frame.kind == UNTIL || frame.kind == UNTIL_EXPR) {
+                    expects(TokenType.UNTIL);
+                    expects(TokenType.LPAREN);
+
+                    frame.body = stmt;
+
+                    step = PARSE_EXPR;
+                } else if (frame.kind == WHILE_EXPR) {
+                    frames.pop();
+
+                    base = frame.base;
+                    value = exprParser.resume(base, frame.precedence, new Node.Expr.While(frame.condition, stmt));
+
+                    step = RESUME_EXPR;
+                } else {
+                    if (frame.stage == THEN) {
+                        frame.body = stmt;
+                    } else if (frame.stage == ELIF) {
+                        frame.elifs.add(new Couple<>(frame.elifCondition, stmt));
+                    } else {
+                        frame.elseBody = stmt;
+                    }
+
+                    if (frame.stage != ELSE && matches(TokenType.ELIF)) {
+                        next();
+                        expects(TokenType.LPAREN);
+
+                        frame.stage = ELIF_CONDITION;
+
+                        step = PARSE_EXPR;
+                    } else if (frame.stage != ELSE && matches(TokenType.ELSE)) {
+                        next();
+
+                        frame.stage = ELSE;
+
+                        step = PARSE_STMT;
+                    } else {
+                        frames.pop();
+
+                        stmt = new Node.Stmt.If(frame.condition, frame.body, frame.elifs, frame.elseBody);
+
+                        start = frame.start;
+                        length = frame.length;
+                    }
+                }
+            } else {
+                if (frames.isEmpty()) {
+                    return value;
+                }
+
+                Frame frame = frames.peek();
+
+                step = REDUCE_STMT;
+
+                if (frame.kind == LET) {
+                    stmt = new Node.Stmt.Define.Variable(frame.type, frame.identifier, value);
+                } else if (frame.kind == TYPE) {
+                    stmt = new Node.Stmt.Define.Type(frame.name, frame.identifier, value);
+                } else if (frame.kind == PROC) {
+                    stmt = new Node.Stmt.Define.Proc(frame.identifier, frame.type, frame.parameters, value);
+                } else if (frame.kind == RETURN) {
+                    expects(TokenType.SEMI);
+
+                    stmt = new Node.Stmt.Return(value);
+                } else if (frame.kind == EXPR) {
+                    stmt = new Node.Stmt.Expr(value);
+                } else if (frame.kind == UNTIL) {
+                    expects(TokenType.RPAREN);
+                    expects(TokenType.SEMI);
+
+                    stmt = new Node.Stmt.Until(value, frame.body);
+                } else if (frame.kind == UNTIL_EXPR) {
+                    expects(TokenType.RPAREN);
+
+                    frames.pop();
+
+                    base = frame.base;
+                    value = exprParser.resume(base, frame.precedence, new Node.Expr.Until(value, frame.body));
+
+                    step = RESUME_EXPR;
+                    continue;
+                } else {
+                    expects(TokenType.RPAREN);
+
+                    if (frame.stage == ELIF_CONDITION) {
+                        frame.elifCondition = value;
+                        frame.stage = ELIF;
+                    } else {
+                        frame.condition = value;
+                        frame.stage = THEN;
+                    }
+
+                    step = PARSE_STMT;
+                    continue;
+                }
+
+                frames.pop();
+
+                start = frame.start;
+                length = frame.length;
+            }
+        }
     }
 
     private Node.Stmt.Continue parseContinueStmt() {
@@ -96,81 +364,16 @@ public class VivaStmtParser extends AbstractStmtParser {
         return new Node.Stmt.Break(read(-2));
     }
 
-    private Node.Stmt.While parseWhileStmt() {
-        expects(TokenType.WHILE);
-        expects(TokenType.LPAREN);
-        
-        Node.Expr condition = parseExpr();
-        
-        expects(TokenType.RPAREN);
-        
-        Node.Stmt body = parseStmt();
-         
-        return new Node.Stmt.While(condition, body);
-    }
-    
-    private Node.Stmt.Until parseUntilStmt() {
-        expects(TokenType.DO);
-        
-        Node.Stmt body = parseStmt();
-
-        expects(TokenType.UNTIL);
-
-        expects(TokenType.LPAREN);
-
-        Node.Expr condition = parseExpr();
-
-        expects(TokenType.RPAREN);                    
-        expects(TokenType.SEMI);                    
-                        
-        return new Node.Stmt.Until(condition, body);
-    }
-
-    private Node.Stmt.If parseIfStmt() {
-        expects(TokenType.IF);
-        expects(TokenType.LPAREN);
-        
-        Node.Expr condition = parseExpr();
-        
-        expects(TokenType.RPAREN);
-        
-        Node.Stmt body = parseStmt();
-        
-        List<Couple<Node.Expr, Node.Stmt>> elifs = new ArrayList<>();
-        while (matches(TokenType.ELIF)) { 
-            expects(TokenType.ELIF);
-            expects(TokenType.LPAREN);
-            
-            Node.Expr elifCondition = parseExpr();
-            
-            expects(TokenType.RPAREN);
-
-            Node.Stmt elifBody = parseStmt();
-
-            elifs.add(new Couple<>(elifCondition, elifBody));
-        }
-        
-        Node.Stmt elseBody = null;
-        
-        if (matches(TokenType.ELSE)) {
-            next();
-            
-            elseBody = parseStmt();
-        }
-
-        return new Node.Stmt.If(condition, body, elifs, elseBody);
-    }
-
-    private Node.Stmt.Define parseType(Token identifier) {
-        switch (read().type) {
+    private Node.Stmt.Define parseType(Frame frame) {
+        switch (type()) {
             case PROC: {
                 expects(TokenType.PROC);
 
-                Map<Token, Token> parameters = new HashMap<>();
+                Map<Token, Token> parameters = new LinkedHashMap<>();
                 
                 expects(TokenType.LPAREN);
                 
-                while (!matches(TokenType.RPAREN)) {
+                while (!eos() && !isPanicking() && !matches(TokenType.RPAREN)) {
                     expects(TokenType.IDENTIFIER);
                     
                     Token param = read(-1);
@@ -193,21 +396,35 @@ public class VivaStmtParser extends AbstractStmtParser {
 
                 if (!matches(TokenType.ASSIGN)) {
                     expects(TokenType.SEMI);
-                    return new Node.Stmt.Define.Proc(identifier, returnType, parameters, null);
-                } else {
-                    next();
-                    return new Node.Stmt.Define.Proc(identifier, returnType, parameters, parseExpr());
+                    return new Node.Stmt.Define.Proc(frame.identifier, returnType, parameters, null);
                 }
+
+                next();
+
+                Node.Expr body = deferBody();
+
+                if (body != null) {
+                    return new Node.Stmt.Define.Proc(frame.identifier, returnType, parameters, body);
+                }
+
+                frame.kind = PROC;
+                frame.type = returnType;
+                frame.parameters = parameters;
+                return null;
             } case CLASS: {
                 expects(TokenType.CLASS);
                 expects(TokenType.ASSIGN);
-                
-                return new Node.Stmt.Define.Type("class", identifier, parseExpr());
+
+                frame.kind = TYPE;
+                frame.name = "class";
+                return null;
             } case STRUCT: {
                 expects(TokenType.STRUCT);
                 expects(TokenType.ASSIGN);
 
-                return new Node.Stmt.Define.Type("struct", identifier, parseExpr());
+                frame.kind = TYPE;
+                frame.name = "struct";
+                return null;
             } case IDENTIFIER: {
                 expects(TokenType.IDENTIFIER);
 
@@ -215,26 +432,68 @@ public class VivaStmtParser extends AbstractStmtParser {
 
                 if (!matches(TokenType.ASSIGN)) {
                     expects(TokenType.SEMI);
-                    return new Node.Stmt.Define.Variable(type, identifier, null);
-                } else {
-                    next();
-                    return new Node.Stmt.Define.Variable(type, identifier, parseExpr());
+                    return new Node.Stmt.Define.Variable(type, frame.identifier, null);
                 }
+
+                next();
+
+                frame.kind = LET;
+                frame.type = type;
+                return null;
             } default: {
-                expected(TokenType.PROC, TokenType.CLASS, TokenType.STRUCT, TokenType.IDENTIFIER);
+                expected(TYPE_FIRSTS);
                 return null;
             }
         }
     }
 
-    private Node.Stmt.Define parseDefinitionStmt() {
+    private Node.Stmt.Define parseDefinitionStmt(Frame frame) {
         expects(TokenType.LET);
         expects(TokenType.IDENTIFIER);
         
-        Token identifier = read(-1);
+        frame.identifier = read(-1);
 
         expects(TokenType.COLON);
 
-        return parseType(identifier);
+        return parseType(frame);
+    }
+
+    private static class Frame {
+        private byte kind;
+
+        private final int start;
+        private final int length;
+
+        private Node.Expr condition;
+
+        private final List<Node.Stmt> stmts;
+
+        private Node.Stmt body;
+        private final List<Couple<Node.Expr, Node.Stmt>> elifs;
+        private Node.Expr elifCondition;
+        private Node.Stmt elseBody;
+
+        private byte stage;
+
+        private Token identifier;
+        private Token type;
+        private String name;
+        private Map<Token, Token> parameters;
+
+        private int base;
+        private int precedence;
+
+        private Frame(byte kind, int start, int length) {
+            this.kind = kind;
+
+            this.start = start;
+            this.length = length;
+
+            this.stmts = kind == BLOCK || kind == BLOCK_EXPR ? new ArrayList<>() : null;
+
+            this.elifs = kind == IF ? new ArrayList<>() : null;
+
+            this.stage = THEN;
+        }
     }
 }
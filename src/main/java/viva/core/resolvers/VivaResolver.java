@@ -0,0 +1,365 @@
+package viva.core.resolvers;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import viva.base.common.Address;
+import viva.base.common.Diagnostics;
+import viva.base.common.SymbolTable;
+import viva.base.common.Token;
+import viva.base.common.ast.Arena;
+import viva.base.common.ast.Node;
+import viva.base.common.ast.NodeVisitor;
+import viva.utils.Couple;
+
+public class VivaResolver implements NodeVisitor<Void> {
+    @Getter
+    private final Diagnostics diagnostics;
+
+    @Getter
+    private final Map<Node.Expr, Address> addresses;
+
+    @Getter
+    private final Map<Node, Integer> frames;
+
+    private Address[] indexedAddresses;
+    private int[] indexedFrames;
+
+    private SymbolTable<Binding> scope;
+
+    private Frame frame;
+
+    public VivaResolver(Diagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+
+        this.addresses = new IdentityHashMap<>();
+        this.frames = new IdentityHashMap<>();
+
+        this.indexedAddresses = new Address[0];
+        this.indexedFrames = new int[0];
+
+        this.scope = SymbolTable.empty();
+
+        this.frame = null;
+    }
+
+    public VivaResolver() {
+        this(new Diagnostics());
+    }
+
+    public void resolve(Node.Program program) {
+        visit(program);
+    }
+
+    public Address address(Node.Expr node) {
+        int index = Arena.index(node);
+
+        if (index < 0) {
+            return addresses.get(node);
+        }
+
+        return index < indexedAddresses.length ? indexedAddresses[index] : null;
+    }
+
+    public int frame(Node owner) {
+        int index = Arena.index(owner);
+
+        if (index < 0) {
+            return frames.getOrDefault(owner, -1);
+        }
+
+        return index < indexedFrames.length ? indexedFrames[index] : -1;
+    }
+
+    private void record(Node.Expr node, Address address) {
+        int index = Arena.index(node);
+
+        if (index < 0) {
+            addresses.put(node, address);
+            return;
+        }
+
+        if (index >= indexedAddresses.length) {
+            indexedAddresses = Arrays.copyOf(indexedAddresses, Math.max(index + 1, indexedAddresses.length * 2));
+        }
+
+        indexedAddresses[index] = address;
+    }
+
+    private void record(Node owner, int size) {
+        int index = Arena.index(owner);
+
+        if (index < 0) {
+            frames.put(owner, size);
+            return;
+        }
+
+        if (index >= indexedFrames.length) {
+            int length = indexedFrames.length;
+
+            indexedFrames = Arrays.copyOf(indexedFrames, Math.max(index + 1, length * 2));
+            Arrays.fill(indexedFrames, length, indexedFrames.length, -1);
+        }
+
+        indexedFrames[index] = size;
+    }
+
+    private void enterFrame() {
+        frame = new Frame(frame, scope, frame == null ? 0 : frame.level + 1, 0);
+    }
+
+    private void closeFrame(Node owner) {
+        record(owner, frame.size);
+
+        scope = frame.saved;
+        frame = frame.parent;
+    }
+
+    private void declare(Token identifier) {
+        Binding binding = scope.get(identifier.symbol());
+
+        if (binding == null || binding.level != frame.level) {
+            scope = scope.put(identifier.symbol(), new Binding(frame.level, frame.size++));
+        }
+    }
+
+    private void resolve(Node.Expr node, Token identifier) {
+        Binding binding = scope.get(identifier.symbol());
+
+        if (binding != null) {
+            record(node, new Address(frame.level - binding.level, binding.slot));
+            return;
+        }
+
+        diagnostics.error(identifier.source, identifier.offset, identifier.length,
+            String.format("Undefined name %s", identifier.lexeme()));
+    }
+
+    private void visitBody(List<Node.Stmt> body) {
+        for (Node.Stmt stmt : body) {
+            if (stmt != null) {
+                visit(stmt);
+            }
+        }
+    }
+
+    private void visitOptional(Node node) {
+        if (node != null) {
+            visit(node);
+        }
+    }
+
+    @Override
+    public Void visitProgram(Node.Program node) {
+        enterFrame();
+
+        for (Node.Stmt stmt : node.body) {
+            if (stmt instanceof Node.Stmt.Define.Proc) {
+                declare(((Node.Stmt.Define.Proc) stmt).identifier);
+            } else if (stmt instanceof Node.Stmt.Define.Type) {
+                declare(((Node.Stmt.Define.Type) stmt).identifier);
+            }
+        }
+
+        visitBody(node.body);
+        closeFrame(node);
+        return null;
+    }
+
+    @Override
+    public Void visitStmt(Node.Stmt node) {
+        return null;
+    }
+
+    @Override
+    public Void visitBlockStmt(Node.Stmt.Block node) {
+        enterFrame();
+        visitBody(node.body);
+        closeFrame(node);
+        return null;
+    }
+
+    @Override
+    public Void visitDefineStmt(Node.Stmt.Define node) {
+        return null;
+    }
+
+    @Override
+    public Void visitDefineProcStmt(Node.Stmt.Define.Proc node) {
+        declare(node.identifier);
+
+        enterFrame();
+        for (Token parameter : node.parameters.keySet()) {
+            declare(parameter);
+        }
+        visitOptional(node.body);
+        closeFrame(node);
+        return null;
+    }
+
+    @Override
+    public Void visitDefineTypeStmt(Node.Stmt.Define.Type node) {
+        declare(node.identifier);
+        visitOptional(node.body);
+        return null;
+    }
+
+    @Override
+    public Void visitDefineVariableStmt(Node.Stmt.Define.Variable node) {
+        visitOptional(node.value);
+        declare(node.identifier);
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStmt(Node.Stmt.Return node) {
+        visitOptional(node.value);
+        return null;
+    }
+
+    @Override
+    public Void visitContinueStmt(Node.Stmt.Continue node) {
+        return null;
+    }
+
+    @Override
+    public Void visitBreakStmt(Node.Stmt.Break node) {
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(Node.Stmt.While node) {
+        visitOptional(node.condition);
+        visitOptional(node.body);
+        return null;
+    }
+
+    @Override
+    public Void visitUntilStmt(Node.Stmt.Until node) {
+        visitOptional(node.body);
+        visitOptional(node.condition);
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(Node.Stmt.If node) {
+        visitOptional(node.condition);
+        visitOptional(node.body);
+        for (Couple<Node.Expr, Node.Stmt> elif : node.elifs) {
+            visitOptional(elif.a);
+            visitOptional(elif.b);
+        }
+        visitOptional(node.elseBody);
+        return null;
+    }
+
+    @Override
+    public Void visitExprStmt(Node.Stmt.Expr node) {
+        visitOptional(node.value);
+        return null;
+    }
+
+    @Override
+    public Void visitExpr(Node.Expr node) {
+        return null;
+    }
+
+    @Override
+    public Void visitBinaryExpr(Node.Expr.Binary node) {
+        visitOptional(node.operandLeft);
+        visitOptional(node.operandRight);
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpr(Node.Expr.Unary node) {
+        visitOptional(node.operandRight);
+        return null;
+    }
+
+    @Override
+    public Void visitLiteralExpr(Node.Expr.Literal node) {
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(Node.Expr.Variable node) {
+        resolve(node, node.identifier);
+        return null;
+    }
+
+    @Override
+    public Void visitProcCallExpr(Node.Expr.ProcCall node) {
+        resolve(node, node.identifier);
+        for (Node.Expr argument : node.arguments) {
+            visitOptional(argument);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitAccessExpr(Node.Expr.Access node) {
+        resolve(node, node.identifier);
+        visitOptional(node.index);
+        return null;
+    }
+
+    @Override
+    public Void visitReferenceExpr(Node.Expr.Reference node) {
+        resolve(node, node.variable);
+        return null;
+    }
+
+    @Override
+    public Void visitBlockExpr(Node.Expr.Block node) {
+        enterFrame();
+        visitBody(node.body);
+        closeFrame(node);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileExpr(Node.Expr.While node) {
+        visitOptional(node.condition);
+        visitOptional(node.body);
+        return null;
+    }
+
+    @Override
+    public Void visitUntilExpr(Node.Expr.Until node) {
+        visitOptional(node.body);
+        visitOptional(node.condition);
+        return null;
+    }
+
+    @Override
+    public Void visitIfExpr(Node.Expr.If node) {
+        visitOptional(node.condition);
+        visitOptional(node.body);
+        for (Couple<Node.Expr, Node.Expr> elif : node.elifs) {
+            visitOptional(elif.a);
+            visitOptional(elif.b);
+        }
+        visitOptional(node.elseBody);
+        return null;
+    }
+
+    @AllArgsConstructor
+    private static class Binding {
+        private final int level;
+        private final int slot;
+    }
+
+    @AllArgsConstructor
+    private static class Frame {
+        private final Frame parent;
+        private final SymbolTable<Binding> saved;
+
+        private final int level;
+        private int size;
+    }
+}
@@ -69,19 +69,19 @@ public class Formatter implements NodeVisitor<String> {
     public String visitDefineProcStmt(Node.Stmt.Define.Proc node) {
         StringBuilder builder = new StringBuilder();
         for (Entry<Token, Token> entry : node.parameters.entrySet()) {
-            builder.append(entry.getKey().lexeme + ": " + entry.getValue().lexeme);
+            builder.append(entry.getKey().lexeme() + ": " + entry.getValue().lexeme());
         }
-        return "let " + node.identifier.lexeme + ": proc (" + builder + ") => " + node.returnType.lexeme + (node.body == null ? ";" : " = " + visit(node.body));
+        return "let " + node.identifier.lexeme() + ": proc (" + builder + ") => " + node.returnType.lexeme() + (node.body == null ? ";" : " = " + visit(node.body));
     }
 
     @Override
     public String visitDefineTypeStmt(Node.Stmt.Define.Type node) {
-        return "let " + node.identifier.lexeme + ": " + node.kind + " = " + visit(node.body);
+        return "let " + node.identifier.lexeme() + ": " + node.kind + " = " + visit(node.body);
     }
 
     @Override
     public String visitDefineVariableStmt(Node.Stmt.Define.Variable node) {
-        return "let " + node.identifier.lexeme + ": " + node.type.lexeme + (node.value == null ? ";" : "= " + visit(node.value));
+        return "let " + node.identifier.lexeme() + ": " + node.type.lexeme() + (node.value == null ? ";" : "= " + visit(node.value));
     }
 
     @Override
@@ -91,12 +91,12 @@ public class Formatter implements NodeVisitor<String> {
 
     @Override
     public String visitContinueStmt(Node.Stmt.Continue node) {
-        return "continue " + node.identifier.lexeme + ";";
+        return "continue " + node.identifier.lexeme() + ";";
     }
 
     @Override
     public String visitBreakStmt(Node.Stmt.Break node) {
-        return "break " + node.identifier.lexeme + ";";
+        return "break " + node.identifier.lexeme() + ";";
     }
 
     @Override
@@ -130,22 +130,22 @@ public class Formatter implements NodeVisitor<String> {
 
     @Override
     public String visitBinaryExpr(Node.Expr.Binary node) {
-        return visit(node.operandLeft) + node.operator.lexeme + visit(node.operandRight);
+        return visit(node.operandLeft) + node.operator.lexeme() + visit(node.operandRight);
     }
 
     @Override
     public String visitUnaryExpr(Node.Expr.Unary node) {
-        return node.operator.lexeme + visit(node.operandRight);
+        return node.operator.lexeme() + visit(node.operandRight);
     }
 
     @Override
     public String visitLiteralExpr(Node.Expr.Literal node) {
-        return node.value.lexeme;
+        return node.value.lexeme();
     }
 
     @Override
     public String visitVariableExpr(Node.Expr.Variable node) {
-        return node.identifier.lexeme;
+        return node.identifier.lexeme();
     }
 
     @Override
@@ -159,17 +159,17 @@ public class Formatter implements NodeVisitor<String> {
             }
         }
 
-        return node.identifier.lexeme + builder;
+        return node.identifier.lexeme() + builder;
     }
 
     @Override
     public String visitAccessExpr(Node.Expr.Access node) {
-        return node.identifier.lexeme + "[" + visit(node.index) + "]";
+        return node.identifier.lexeme() + "[" + visit(node.index) + "]";
     }
     
     @Override
     public String visitReferenceExpr(Node.Expr.Reference node) {
-        return node.variable.lexeme + "." + node.identifier.lexeme;
+        return node.variable.lexeme() + "." + node.identifier.lexeme();
     }
 
     @Override
@@ -0,0 +1,112 @@
+package viva.utils;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+import viva.base.common.Source;
+import viva.base.common.TokenType;
+
+public class KeywordTable {
+    private static final int MAX_SIZE = 1 << 12;
+
+    private final String[] words;
+    private final TokenType[] types;
+
+    private final int seed;
+    private final int mask;
+
+    private final int minLength;
+    private final int maxLength;
+
+    public KeywordTable(Map<String, TokenType> keywords) {
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+
+        for (String word : keywords.keySet()) {
+            min = Math.min(min, word.length());
+            max = Math.max(max, word.length());
+        }
+
+        this.minLength = min;
+        this.maxLength = max;
+
+        int size = Integer.highestOneBit(Math.max(keywords.size(), 1) * 2 - 1) << 1;
+        int seed = search(keywords, size);
+
+        while (seed == 0 && size < MAX_SIZE) {
+            size <<= 1;
+            seed = search(keywords, size);
+        }
+
+        if (seed == 0) {
+            throw new IllegalArgumentException("No perfect hash for keywords " + keywords.keySet());
+        }
+
+        this.words = new String[size];
+        this.types = new TokenType[size];
+
+        this.seed = seed;
+        this.mask = size - 1;
+
+        place(keywords, words, types, seed, mask);
+    }
+
+    private static int search(Map<String, TokenType> keywords, int size) {
+        for (int seed = 1; seed < size * 2; seed += 2) {
+            if (place(keywords, new String[size], new TokenType[size], seed, size - 1)) {
+                return seed;
+            }
+        }
+
+        return 0;
+    }
+
+    private static int hash(int length, char first, char last, int seed) {
+        return ((length * 31 + first) * 31 + last) * seed;
+    }
+
+    private static int slot(int hash, int mask) {
+        return (hash ^ (hash >>> 7)) & mask;
+    }
+
+    private static boolean place(Map<String, TokenType> keywords, String[] words, TokenType[] types, int seed, int mask) {
+        for (Entry<String, TokenType> entry : keywords.entrySet()) {
+            String word = entry.getKey();
+
+            int slot = slot(hash(word.length(), word.charAt(0), word.charAt(word.length() - 1), seed), mask);
+
+            if (words[slot] != null) {
+                return false;
+            }
+
+            words[slot] = word;
+            types[slot] = entry.getValue();
+        }
+
+        return true;
+    }
+
+    public TokenType lookup(Source source, int start, int end) {
+        int length = end - start;
+
+        if (length < minLength || length > maxLength) {
+            return null;
+        }
+
+        int slot = slot(hash(length, source.at(start), source.at(end - 1), seed), mask);
+
+        String word = words[slot];
+
+        if (word == null || word.length() != length) {
+            return null;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (word.charAt(i) != source.at(start + i)) {
+                return null;
+            }
+        }
+
+        return types[slot];
+    }
+}
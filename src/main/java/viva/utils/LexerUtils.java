@@ -1,34 +1,94 @@
 package viva.utils;
 
 public class LexerUtils {
+    public static final int DIGIT       = 1;
+    public static final int ALPHA       = 1 << 1;
+    public static final int IDENT_HEAD  = 1 << 2;
+    public static final int IDENT_BODY  = 1 << 3;
+    public static final int STRING      = 1 << 4;
+    public static final int CHAR        = 1 << 5;
+    public static final int WHITESPACE  = 1 << 6;
+
+    private static final byte[] CLASSES = new byte[256];
+
     private LexerUtils() {}
 
+    public static int classOf(char c) {
+        return CLASSES[c > 0xFF ? 0xFF : c];
+    }
+
+    public static boolean is(char c, int mask) {
+        return (classOf(c) & mask) != 0;
+    }
+
     public static boolean isDigit(char c) {
-        return c >= '0' && c <= '9';
+        return is(c, DIGIT);
     }
 
     public static boolean isAlpha(char c) {
-        return c >= 'a' && c <= 'z'
-            || c >= 'A' && c <= 'Z';
+        return is(c, ALPHA);
     }
 
     public static boolean isAlphaDigit(char c) {
-        return isDigit(c) || isAlpha(c);
+        return is(c, ALPHA | DIGIT);
     }
 
     public static boolean isIdentHead(char c) {
-        return isAlpha(c) || c == '$' || c == '_';
+        return is(c, IDENT_HEAD);
     }
 
     public static boolean isIdentBody(char c) {
-        return isAlphaDigit(c) || c == '$' || c == '_';
+        return is(c, IDENT_BODY);
     }
 
     public static boolean isValidString(char c) {
-        return c != '\n' && c > '\31' && c != '\127' && c != '\"';
+        return is(c, STRING);
     }
 
     public static boolean isValidChar(char c) {
-        return c != '\n' && c > '\31' && c != '\127' && c != '\'';
+        return is(c, CHAR);
+    }
+
+    public static boolean isWhitespace(char c) {
+        return is(c, WHITESPACE);
+    }
+
+    static {
+        for (char c = 0; c < CLASSES.length; c++) {
+            boolean digit = c >= '0' && c <= '9';
+            boolean alpha = c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+
+            int classes = 0;
+
+            if (digit) {
+                classes |= DIGIT;
+            }
+
+            if (alpha) {
+                classes |= ALPHA;
+            }
+
+            if (alpha || c == '$' || c == '_') {
+                classes |= IDENT_HEAD;
+            }
+
+            if (alpha || digit || c == '$' || c == '_') {
+                classes |= IDENT_BODY;
+            }
+
+            if (c != '\n' && c > '\31' && c != '\127' && c != '\"') {
+                classes |= STRING;
+            }
+
+            if (c != '\n' && c > '\31' && c != '\127' && c != '\'') {
+                classes |= CHAR;
+            }
+
+            if (c == ' ' || c == '\t' || c == '\r') {
+                classes |= WHITESPACE;
+            }
+
+            CLASSES[c] = (byte) classes;
+        }
     }
 }
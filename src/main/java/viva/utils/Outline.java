@@ -0,0 +1,48 @@
+package viva.utils;
+
+import java.util.Map.Entry;
+
+import viva.base.common.Token;
+import viva.base.common.ast.Node;
+
+public class Outline extends Formatter {
+
+    public Outline() {
+        super();
+    }
+
+    @Override
+    public String visitProgram(Node.Program node) {
+        StringBuilder builder = new StringBuilder();
+        for (Node.Stmt stmt : node.body) {
+            if (stmt instanceof Node.Stmt.Define) {
+                builder.append(visit(stmt));
+                builder.append("\n");
+            }
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String visitDefineProcStmt(Node.Stmt.Define.Proc node) {
+        StringBuilder builder = new StringBuilder();
+        for (Entry<Token, Token> entry : node.parameters.entrySet()) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+
+            builder.append(entry.getKey().lexeme() + ": " + entry.getValue().lexeme());
+        }
+        return node.identifier.lexeme() + ": proc (" + builder + ") => " + node.returnType.lexeme();
+    }
+
+    @Override
+    public String visitDefineTypeStmt(Node.Stmt.Define.Type node) {
+        return node.identifier.lexeme() + ": " + node.kind;
+    }
+
+    @Override
+    public String visitDefineVariableStmt(Node.Stmt.Define.Variable node) {
+        return node.identifier.lexeme() + ": " + node.type.lexeme();
+    }
+}
@@ -0,0 +1,138 @@
+package viva;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import viva.base.common.Diagnostics;
+import viva.base.common.Source;
+import viva.base.common.TokenBuffer;
+import viva.base.common.ast.Arena;
+import viva.core.lexers.VivaLexer;
+import viva.core.parsers.VivaParser;
+import viva.utils.Formatter;
+
+public class CacheTest {
+    private static Arena parse(Source source) {
+        VivaLexer lexer = new VivaLexer(source, new TokenBuffer(source, false), new Diagnostics());
+        lexer.tokenize();
+
+        return new VivaParser(lexer.getOutput()).parseArena();
+    }
+
+    private static String format(Arena arena) {
+        return new Formatter().visit(arena.node(arena.getRoot()));
+    }
+
+    private static long size(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(path -> path.toString().endsWith(".ast")).mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+
+    @Test
+    public void storeLoadRoundTrip(@TempDir Path directory) throws IOException {
+        Path file = Files.writeString(directory.resolve("sample.viva"), Samples.PROGRAM + Samples.program(20), StandardCharsets.UTF_8);
+
+        Cache cache = new Cache(directory.resolve("cache"), Cache.DEFAULT_MAX_SIZE);
+
+        String key = cache.key(file);
+
+        assertNotNull(key);
+        assertNull(cache.load(key, Source.map(file)));
+
+        Arena arena = parse(Source.map(file));
+
+        assertTrue(cache.store(key, arena));
+
+        Arena loaded = cache.load(key, Source.map(file));
+
+        assertNotNull(loaded);
+        assertEquals(format(arena), format(loaded));
+    }
+
+    @Test
+    public void modifiedSourceMisses(@TempDir Path directory) throws IOException {
+        Path file = Files.writeString(directory.resolve("sample.viva"), Samples.PROGRAM, StandardCharsets.UTF_8);
+
+        Cache cache = new Cache(directory.resolve("cache"), Cache.DEFAULT_MAX_SIZE);
+
+        String key = cache.key(file);
+
+        assertTrue(cache.store(key, parse(Source.map(file))));
+
+        Files.writeString(file, Samples.PROGRAM + "let z: int = 1\n", StandardCharsets.UTF_8);
+
+        String modified = cache.key(file);
+
+        assertNotEquals(key, modified);
+        assertNull(cache.load(modified, Source.map(file)));
+    }
+
+    @Test
+    public void corruptEntryMisses(@TempDir Path directory) throws IOException {
+        Path file = Files.writeString(directory.resolve("sample.viva"), Samples.PROGRAM, StandardCharsets.UTF_8);
+
+        Cache cache = new Cache(directory.resolve("cache"), Cache.DEFAULT_MAX_SIZE);
+
+        String key = cache.key(file);
+
+        assertTrue(cache.store(key, parse(Source.map(file))));
+
+        Path entry = directory.resolve("cache").resolve(key + ".ast");
+
+        Files.write(entry, new byte[] { 0, 1, 2, 3, 4, 5, 6, 7 });
+
+        assertNull(cache.load(key, Source.map(file)));
+        assertFalse(Files.exists(entry));
+
+        assertTrue(cache.store(key, parse(Source.map(file))));
+        assertNotNull(cache.load(key, Source.map(file)));
+    }
+
+    @Test
+    public void sizeLimitEvictsOldestEntries(@TempDir Path directory) throws IOException {
+        Path cacheDirectory = directory.resolve("cache");
+
+        Path probe = Files.writeString(directory.resolve("probe.viva"), Samples.program(12), StandardCharsets.UTF_8);
+
+        Cache unbounded = new Cache(directory.resolve("probe"), Cache.DEFAULT_MAX_SIZE);
+        assertTrue(unbounded.store(unbounded.key(probe), parse(Source.map(probe))));
+
+        long entrySize = size(directory.resolve("probe"));
+
+        Cache cache = new Cache(cacheDirectory, entrySize * 5 / 2);
+
+        String last = null;
+        Path lastFile = null;
+
+        for (int i = 0; i < 6; i++) {
+            Path file = Files.writeString(directory.resolve("file" + i + ".viva"),
+                Samples.program(12).replace("let ", "let v" + i), StandardCharsets.UTF_8);
+
+            last = cache.key(file);
+            lastFile = file;
+
+            assertTrue(cache.store(last, parse(Source.map(file))));
+
+            Files.setLastModifiedTime(cacheDirectory.resolve(last + ".ast"), FileTime.fromMillis(1000L * (i + 1)));
+
+            assertTrue(size(cacheDirectory) <= entrySize * 5 / 2, "cache size after " + (i + 1) + " entries");
+        }
+
+        assertNotNull(cache.load(last, Source.map(lastFile)));
+    }
+}
@@ -0,0 +1,69 @@
+package viva;
+
+public class Samples {
+    public static final String PROGRAM = String.join("\n",
+        "let x: int = 1 + 2 * 3",
+        "let name: string = \"hello world\"",
+        "let c: char = 'a'",
+        "let add: proc (a: int) => int = {",
+        "    let r: int = a + x",
+        "    while (r > 0) {",
+        "        r = r - 1",
+        "        if (r == 2) { break outer; } elif (r == 3) { continue outer; } else { r = r }",
+        "    }",
+        "    do { r = r + 1 } until (r >= 10);",
+        "    return r;",
+        "}",
+        "let decl: proc (a: int) => int;",
+        "let P: struct = { let f: int = 15 }",
+        "let flag: bool = not true and false xor x < 3",
+        "let y: int = x = x = -x * ~x",
+        "");
+
+    public static String program(int declarations) {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < declarations; i++) {
+            switch (i % 6) {
+                case 0: {
+                    builder.append("let p").append(i).append(": proc (a: int, b: int) => int = {\n")
+                        .append("    let t: int = a * b + ").append(i).append("\n")
+                        .append("    while (t > 0) { t = t - 1 }\n")
+                        .append("    if (a == b) { return t; } elif (a > b) { return a; } else { return b; }\n")
+                        .append("    do { t = t + 1 } until (t >= 10);\n")
+                        .append("    return t;\n")
+                        .append("}\n");
+                    break;
+                } case 1: {
+                    builder.append("let g").append(i).append(": int = ").append(i).append(" * (").append(i).append(" + 3) - 7 / 2\n");
+                    break;
+                } case 2: {
+                    builder.append("let s").append(i).append(": string = \"text ").append(i).append(" é ✓\"\n");
+                    break;
+                } case 3: {
+                    builder.append("let c").append(i).append(": char = 'x'\n")
+                        .append("let f").append(i).append(": float = ").append(i).append(".5\n");
+                    break;
+                } case 4: {
+                    builder.append("let e").append(i).append(": proc (n: int) => int = n + ").append(i).append('\n');
+                    break;
+                } default: {
+                    builder.append("let k").append(i).append(": bool = not true and false xor ").append(i).append(" < 3\n");
+                    break;
+                }
+            }
+        }
+
+        return builder.toString();
+    }
+
+    public static String broken(int declarations) {
+        StringBuilder builder = new StringBuilder(program(declarations));
+
+        for (int i = builder.length() / 7; i < builder.length(); i += builder.length() / 7) {
+            builder.insert(builder.lastIndexOf("\n", i) + 1, i % 2 == 0 ? "let $: int = ! 1\n" : "let q: = ;\n");
+        }
+
+        return builder.toString();
+    }
+}
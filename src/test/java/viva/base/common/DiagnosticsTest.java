@@ -0,0 +1,96 @@
+package viva.base.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+public class DiagnosticsTest {
+    private static final Source SOURCE = Source.of("let a: int = 1\nlet b: int = 2\nlet c: int = 3\n");
+
+    private static List<String> messages(Diagnostics diagnostics) {
+        return diagnostics.getEntries().stream().map(Object::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    public void suppressesCascadesInsideTheLastSpan() {
+        Diagnostics diagnostics = new Diagnostics();
+
+        diagnostics.error(SOURCE, 4, 3, "first");
+        diagnostics.error(SOURCE, 5, 1, "cascade");
+        diagnostics.error(SOURCE, 6, 1, "cascade");
+        diagnostics.report(Diagnostic.Severity.WARNING, SOURCE, 5, 1, "warning");
+        diagnostics.error(SOURCE, 7, 1, "second");
+
+        assertEquals(List.of("[1:5] ERROR: first", "[1:6] WARNING: warning", "[1:8] ERROR: second"), messages(diagnostics));
+        assertEquals(2, diagnostics.getErrors());
+        assertEquals(2, diagnostics.getSuppressed());
+    }
+
+    @Test
+    public void stopsRecordingErrorsAtTheCap() {
+        Diagnostics diagnostics = new Diagnostics(2);
+
+        for (int i = 0; i < 5; i++) {
+            diagnostics.error(SOURCE, i * 15, 1, "error " + i);
+        }
+
+        diagnostics.report(Diagnostic.Severity.NOTE, SOURCE, 30, 1, "note");
+
+        assertTrue(diagnostics.isFull());
+        assertEquals(2, diagnostics.getErrors());
+        assertEquals(3, diagnostics.getSuppressed());
+        assertEquals(List.of("[1:1] ERROR: error 0", "[2:1] ERROR: error 1", "[3:1] NOTE: note"), messages(diagnostics));
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        diagnostics.flush(new PrintStream(buffer, true, StandardCharsets.UTF_8));
+
+        String[] lines = buffer.toString(StandardCharsets.UTF_8).split(System.lineSeparator());
+
+        assertEquals("Stopped after 2 errors (3 more suppressed)", lines[lines.length - 1]);
+        assertTrue(diagnostics.getEntries().isEmpty());
+    }
+
+    @Test
+    public void sortsBySourceThenOffsetKeepingInsertionOrder() {
+        Source other = Source.of("let d: int = 4\n");
+
+        Diagnostics diagnostics = new Diagnostics();
+
+        diagnostics.error(SOURCE, 30, 1, "c");
+        diagnostics.error(other, 4, 1, "other");
+        diagnostics.error(SOURCE, 15, 1, "b");
+        diagnostics.report(Diagnostic.Severity.WARNING, SOURCE, 15, 1, "b warning");
+        diagnostics.error(SOURCE, 0, 1, "a");
+
+        assertEquals(List.of("[1:1] ERROR: a", "[2:1] ERROR: b", "[2:1] WARNING: b warning", "[3:1] ERROR: c", "[1:5] ERROR: other"),
+            messages(diagnostics));
+    }
+
+    @Test
+    public void mergesChildDiagnosticsUnderTheParentCap() {
+        Diagnostics parent = new Diagnostics(3);
+        Diagnostics child = new Diagnostics(3);
+
+        parent.error(SOURCE, 0, 1, "parent");
+
+        child.error(SOURCE, 15, 3, "child");
+        child.error(SOURCE, 16, 1, "cascade");
+        child.error(SOURCE, 30, 1, "child 2");
+        child.error(SOURCE, 40, 1, "child 3");
+
+        parent.addAll(child);
+
+        assertTrue(parent.isFull());
+        assertFalse(child.getEntries().isEmpty());
+        assertEquals(List.of("[1:1] ERROR: parent", "[2:1] ERROR: child", "[3:1] ERROR: child 2"), messages(parent));
+        assertEquals(2, parent.getSuppressed());
+    }
+}
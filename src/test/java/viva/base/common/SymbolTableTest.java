@@ -0,0 +1,110 @@
+package viva.base.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class SymbolTableTest {
+    private static void assertMatches(Map<Integer, String> expected, SymbolTable<String> actual) {
+        assertEquals(expected.size(), actual.size(), "size");
+
+        for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+            assertTrue(actual.contains(entry.getKey()), "contains " + entry.getKey());
+            assertEquals(entry.getValue(), actual.get(entry.getKey()));
+        }
+
+        Map<Integer, String> visited = new HashMap<>();
+
+        actual.forEach((symbol, value) -> assertNull(visited.put(symbol, value), "visited " + symbol + " twice"));
+
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    public void emptyTable() {
+        SymbolTable<String> table = SymbolTable.empty();
+
+        assertEquals(0, table.size());
+        assertFalse(table.contains(0));
+        assertNull(table.get(42));
+
+        table.forEach((symbol, value) -> assertTrue(false, "empty table visited " + symbol));
+    }
+
+    @Test
+    public void putReplacesWithoutGrowing() {
+        SymbolTable<String> table = SymbolTable.<String>empty().put(7, "a").put(7, "b");
+
+        assertEquals(1, table.size());
+        assertEquals("b", table.get(7));
+    }
+
+    @Test
+    public void keysSharingLowBits() {
+        int[] symbols = { 0, 1 << 5, 1 << 10, 1 << 25, 1 << 30, Integer.MIN_VALUE, -1, -1 << 5, 31, 31 | 1 << 30 };
+
+        Map<Integer, String> expected = new HashMap<>();
+        SymbolTable<String> table = SymbolTable.empty();
+
+        for (int symbol : symbols) {
+            expected.put(symbol, "v" + symbol);
+            table = table.put(symbol, "v" + symbol);
+
+            assertMatches(expected, table);
+        }
+
+        assertFalse(table.contains(1 << 15));
+        assertFalse(table.contains(1 << 20 | 1 << 25));
+    }
+
+    @Test
+    public void olderVersionsAreUnchanged() {
+        Random random = new Random(3);
+
+        List<SymbolTable<String>> versions = new ArrayList<>();
+        List<Map<Integer, String>> models = new ArrayList<>();
+
+        SymbolTable<String> table = SymbolTable.empty();
+        Map<Integer, String> model = new HashMap<>();
+
+        for (int i = 0; i < 5000; i++) {
+            int symbol = random.nextBoolean() ? random.nextInt(2000) : random.nextInt();
+
+            table = table.put(symbol, "v" + i);
+            model.put(symbol, "v" + i);
+
+            if (i % 500 == 0) {
+                versions.add(table);
+                models.add(new HashMap<>(model));
+            }
+        }
+
+        assertMatches(model, table);
+
+        for (int i = 0; i < versions.size(); i++) {
+            assertMatches(models.get(i), versions.get(i));
+        }
+    }
+
+    @Test
+    public void sharedBindingsKeepIdentity() {
+        String value = new String("value");
+
+        SymbolTable<String> base = SymbolTable.<String>empty().put(1, value);
+        SymbolTable<String> derived = base.put(2, "other");
+
+        assertSame(value, base.get(1));
+        assertSame(value, derived.get(1));
+        assertFalse(base.contains(2));
+    }
+}
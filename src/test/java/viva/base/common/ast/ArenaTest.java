@@ -0,0 +1,161 @@
+package viva.base.common.ast;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import viva.Samples;
+import viva.base.common.Address;
+import viva.base.common.Diagnostics;
+import viva.base.common.Source;
+import viva.base.common.TokenBuffer;
+import viva.core.lexers.VivaLexer;
+import viva.core.parsers.VivaParser;
+import viva.core.resolvers.VivaResolver;
+import viva.utils.Formatter;
+
+public class ArenaTest {
+    private static final String TEXT = Samples.PROGRAM + Samples.program(30);
+
+    private static TokenBuffer tokenize(Source source) {
+        VivaLexer lexer = new VivaLexer(source, new TokenBuffer(source, false), new Diagnostics());
+        lexer.tokenize();
+
+        return lexer.getOutput();
+    }
+
+    private static String format(Arena arena) {
+        return new Formatter().visit(arena.node(arena.getRoot()));
+    }
+
+    private static String heap(TokenBuffer tokens) {
+        VivaParser parser = new VivaParser(tokens);
+        parser.parse();
+
+        return new Formatter().visit(parser.getOutput());
+    }
+
+    @Test
+    public void arenaFormatsLikeHeapTree() {
+        TokenBuffer tokens = tokenize(Source.of(TEXT));
+
+        VivaParser parser = new VivaParser(tokens);
+        parser.parse();
+
+        String expected = new Formatter().visit(parser.getOutput());
+
+        assertEquals(expected, format(Arena.of((Node.Program) parser.getOutput(), tokens)));
+        assertEquals(expected, format(new VivaParser(tokens).parseArena()));
+    }
+
+    @Test
+    public void writeReadRoundTrip(@TempDir Path directory) throws IOException {
+        Path file = Files.writeString(directory.resolve("sample.viva"), TEXT, StandardCharsets.UTF_8);
+        Path ast = directory.resolve("sample.ast");
+
+        Source source = Source.map(file);
+
+        Arena arena = new VivaParser(tokenize(source)).parseArena();
+
+        assertTrue(arena.write(ast));
+
+        Arena read = Arena.read(ast, Source.map(file));
+
+        assertEquals(arena.size(), read.size());
+        assertEquals(arena.getRoot(), read.getRoot());
+
+        for (int i = 0; i < arena.size(); i++) {
+            assertEquals(arena.kind(i), read.kind(i), "kind of node " + i);
+        }
+
+        assertEquals(heap(tokenize(source)), format(read));
+
+        assertThrows(IOException.class, () -> Arena.read(ast, Source.of(TEXT + " ")));
+
+        Files.write(ast, new byte[] { 1, 2, 3, 4 });
+
+        assertThrows(IOException.class, () -> Arena.read(ast, source));
+    }
+
+    @Test
+    public void viewsAreDecodedOnDemand() {
+        TokenBuffer tokens = tokenize(Source.of(TEXT));
+
+        VivaParser parser = new VivaParser(tokens);
+        parser.parse();
+
+        Arena arena = new VivaParser(tokens).parseArena();
+
+        Node root = arena.node(arena.getRoot());
+
+        assertNotSame(root, arena.node(arena.getRoot()));
+        assertEquals(arena.getRoot(), Arena.index(root));
+        assertEquals(arena.getRoot(), Arena.index(arena.node(arena.getRoot())));
+        assertEquals(Arena.Kind.PROGRAM, arena.kind(arena.getRoot()));
+
+        assertEquals(-1, Arena.index(parser.getOutput()));
+        assertEquals(((Node.Program) parser.getOutput()).body.size(), ((Node.Program) root).body.size());
+    }
+
+    @Test
+    public void resolverAddressesViews() {
+        TokenBuffer tokens = tokenize(Source.of(TEXT));
+
+        VivaParser parser = new VivaParser(tokens);
+        parser.parse();
+
+        Arena arena = new VivaParser(tokens).parseArena();
+
+        Node.Program heapProgram = (Node.Program) parser.getOutput();
+        Node.Program arenaProgram = (Node.Program) arena.node(arena.getRoot());
+
+        VivaResolver heapResolver = new VivaResolver();
+        heapResolver.resolve(heapProgram);
+
+        VivaResolver arenaResolver = new VivaResolver();
+        arenaResolver.resolve(arenaProgram);
+
+        assertEquals(0, heapResolver.getDiagnostics().getErrors());
+        assertEquals(0, arenaResolver.getDiagnostics().getErrors());
+
+        assertEquals(heapResolver.frame(heapProgram), arenaResolver.frame(arenaProgram));
+        assertEquals(arenaResolver.frame(arenaProgram), arenaResolver.frame(arena.node(arena.getRoot())));
+
+        List<String> expected = new ArrayList<>();
+
+        for (Address address : heapResolver.getAddresses().values()) {
+            expected.add(address.depth + ":" + address.slot);
+        }
+
+        List<String> actual = new ArrayList<>();
+
+        for (int i = 0; i < arena.size(); i++) {
+            if (arena.kind(i) == Arena.Kind.VARIABLE_EXPR) {
+                Address address = arenaResolver.address((Node.Expr) arena.node(i));
+
+                assertNotNull(address, "address of node " + i);
+
+                actual.add(address.depth + ":" + address.slot);
+            }
+        }
+
+        Collections.sort(expected);
+        Collections.sort(actual);
+
+        assertEquals(expected, actual);
+        assertTrue(arenaResolver.getAddresses().isEmpty());
+    }
+}
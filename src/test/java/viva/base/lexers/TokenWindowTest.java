@@ -0,0 +1,76 @@
+package viva.base.lexers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import viva.Samples;
+import viva.base.common.Diagnostics;
+import viva.base.common.Source;
+import viva.base.common.TokenBuffer;
+import viva.core.lexers.VivaLexer;
+import viva.core.parsers.VivaParser;
+import viva.utils.Formatter;
+
+public class TokenWindowTest {
+    @Test
+    public void streamsTheSameTokensAsAFullTokenize() {
+        String text = Samples.program(60);
+
+        VivaLexer lexer = new VivaLexer(text);
+        lexer.tokenize();
+
+        TokenBuffer tokens = lexer.getOutput();
+        TokenWindow window = new TokenWindow(new VivaLexer(text));
+
+        for (int i = 0; i < tokens.size(); i++) {
+            assertEquals(tokens.type(i), window.type(0), "type of token " + i);
+            assertEquals(tokens.offset(i), window.offset(0), "offset of token " + i);
+            assertEquals(tokens.length(i), window.length(0), "length of token " + i);
+
+            window.next();
+        }
+
+        assertTrue(window.eos(0));
+        assertNull(window.read(0));
+    }
+
+    @Test
+    public void keepsLookbehindAndLookaheadWithinTheWindow() {
+        TokenWindow window = new TokenWindow(new VivaLexer(Samples.PROGRAM), 8, 2);
+
+        for (int i = 0; i < 5; i++) {
+            window.next();
+        }
+
+        assertEquals(window.offset(-2), window.read(-2).offset);
+        assertEquals(window.offset(5), window.read(5).offset);
+
+        assertThrows(IllegalStateException.class, () -> window.read(-3));
+        assertThrows(IllegalStateException.class, () -> window.read(8));
+        assertThrows(IllegalArgumentException.class, () -> new TokenWindow(new VivaLexer(Samples.PROGRAM), 4, 4));
+    }
+
+    @Test
+    public void parsesTheSameTreeAsABufferedParse() {
+        String text = Samples.program(60);
+
+        VivaLexer lexer = new VivaLexer(text);
+        lexer.tokenize();
+
+        VivaParser buffered = new VivaParser(lexer.getOutput());
+        buffered.parse();
+
+        Diagnostics diagnostics = new Diagnostics();
+
+        VivaParser streamed = new VivaParser(new TokenWindow(new VivaLexer(Source.of(text), new TokenBuffer(Source.of(text)), diagnostics)), diagnostics);
+        streamed.parse();
+
+        assertEquals(0, buffered.getErrors());
+        assertEquals(0, streamed.getErrors());
+        assertEquals(new Formatter().visit(buffered.getOutput()), new Formatter().visit(streamed.getOutput()));
+    }
+}
@@ -0,0 +1,119 @@
+package viva.core.checkers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import viva.Samples;
+import viva.base.common.Diagnostic;
+import viva.base.common.Diagnostics;
+import viva.base.common.ast.Node;
+import viva.core.lexers.VivaLexer;
+import viva.core.parsers.VivaParser;
+import viva.core.resolvers.VivaResolver;
+
+public class VivaCheckerTest {
+    private static Node.Program parse(String text) {
+        VivaLexer lexer = new VivaLexer(text);
+        lexer.tokenize();
+
+        VivaParser parser = new VivaParser(lexer.getOutput());
+        parser.parse();
+
+        assertEquals(0, parser.getErrors(), "parse errors");
+
+        return (Node.Program) parser.getOutput();
+    }
+
+    private static String check(Node.Program program, ForkJoinPool pool, int maxErrors) {
+        Diagnostics diagnostics = new Diagnostics(maxErrors);
+
+        VivaResolver resolver = new VivaResolver(diagnostics);
+        resolver.resolve(program);
+
+        VivaChecker checker = new VivaChecker(diagnostics, resolver);
+
+        if (pool == null) {
+            checker.check(program);
+        } else {
+            checker.check(program, pool);
+        }
+
+        StringBuilder builder = new StringBuilder();
+
+        for (Diagnostic diagnostic : diagnostics.getEntries()) {
+            builder.append(diagnostic).append('\n');
+        }
+
+        return builder.toString();
+    }
+
+    private static String program(int procs) {
+        StringBuilder builder = new StringBuilder("let total: int = 0\n");
+
+        for (int i = 0; i < procs; i++) {
+            builder.append("let p").append(i).append(": proc (a: int) => int = {\n")
+                .append("    let t: int = a + total\n");
+
+            switch (i % 4) {
+                case 0: {
+                    builder.append("    let u: int = true\n");
+                    break;
+                } case 1: {
+                    builder.append("    let u: int = missing").append(i).append('\n');
+                    break;
+                } case 2: {
+                    builder.append("    let u: float = t + 0.5\n");
+                    break;
+                } default: {
+                    builder.append("    let u: bool = t < 3\n");
+                    break;
+                }
+            }
+
+            builder.append("    return t;\n")
+                .append("}\n");
+        }
+
+        return builder.toString();
+    }
+
+    @Test
+    public void cleanProgramHasNoDiagnostics() {
+        assertEquals("", check(parse(Samples.program(60)), null, Diagnostics.DEFAULT_MAX_ERRORS));
+    }
+
+    @Test
+    public void reportsExpectedErrors() {
+        String diagnostics = check(parse(String.join("\n",
+            "let a: int = true",
+            "let b: int = c",
+            "let s: string = 1 + 2",
+            "return 1;",
+            "")), null, Diagnostics.DEFAULT_MAX_ERRORS);
+
+        assertTrue(diagnostics.contains("Expected int but found bool"), diagnostics);
+        assertTrue(diagnostics.contains("Undefined name c"), diagnostics);
+        assertTrue(diagnostics.contains("Expected string but found int"), diagnostics);
+        assertTrue(diagnostics.contains("Return outside of a proc"), diagnostics);
+    }
+
+    @Test
+    public void parallelCheckMatchesSequential() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            for (int maxErrors : new int[] { 3, 50, Diagnostics.DEFAULT_MAX_ERRORS }) {
+                String sequential = check(parse(program(200)), null, maxErrors);
+
+                assertTrue(!sequential.isEmpty());
+                assertEquals(sequential, check(parse(program(200)), pool, maxErrors), "max errors " + maxErrors);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
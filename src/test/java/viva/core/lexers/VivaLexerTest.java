@@ -0,0 +1,116 @@
+package viva.core.lexers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import viva.Samples;
+import viva.base.common.Diagnostics;
+import viva.base.common.Edit;
+import viva.base.common.Source;
+import viva.base.common.TokenBuffer;
+import viva.base.lexers.AbstractLexer;
+
+public class VivaLexerTest {
+    private static final String[] INSERTIONS = { " ", "x", "12", "\"", "'", "$", "!", "=", "é", "}", "\n", "let z: int = 1\n" };
+
+    private static VivaLexer lexer(Source source, int maxErrors) {
+        return new VivaLexer(source, new TokenBuffer(source), new Diagnostics(maxErrors));
+    }
+
+    private static List<String> messages(Diagnostics diagnostics) {
+        return diagnostics.getEntries().stream().map(Object::toString).collect(Collectors.toList());
+    }
+
+    private static void assertSameTokens(TokenBuffer expected, TokenBuffer actual) {
+        assertEquals(expected.size(), actual.size(), "token count");
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.type(i), actual.type(i), "type of token " + i);
+            assertEquals(expected.offset(i), actual.offset(i), "offset of token " + i);
+            assertEquals(expected.length(i), actual.length(i), "length of token " + i);
+            assertEquals(expected.get(i).lexeme(), actual.get(i).lexeme(), "lexeme of token " + i);
+        }
+    }
+
+    private static void assertParallelMatchesSequential(String text, int maxErrors, int chunkSize) {
+        Source source = Source.of(text);
+
+        VivaLexer sequential = lexer(source, maxErrors);
+        sequential.tokenize();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            VivaLexer parallel = lexer(source, maxErrors);
+            parallel.tokenize(pool, chunkSize);
+
+            assertSameTokens(sequential.getOutput(), parallel.getOutput());
+            assertEquals(messages(sequential.getDiagnostics()), messages(parallel.getDiagnostics()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelTokenizeMatchesSequential() {
+        for (int chunkSize : new int[] { 64, 1000, 1 << 20 }) {
+            assertParallelMatchesSequential(Samples.program(400), 100, chunkSize);
+        }
+    }
+
+    @Test
+    public void parallelTokenizeMatchesSequentialDiagnostics() {
+        String text = Samples.broken(400);
+
+        VivaLexer lexer = lexer(Source.of(text), 100);
+        lexer.tokenize();
+
+        assertTrue(lexer.getDiagnostics().getErrors() > 2);
+
+        for (int maxErrors : new int[] { 2, 100 }) {
+            assertParallelMatchesSequential(text, maxErrors, 64);
+        }
+    }
+
+    private static void assertRelexMatchesFullTokenize(String text, int maxErrors, long seed) {
+        Random random = new Random(seed);
+
+        AbstractLexer lexer = lexer(Source.of(text), maxErrors);
+        lexer.tokenize();
+
+        for (int i = 0; i < 200; i++) {
+            Source source = lexer.getInput();
+
+            int offset = random.nextInt(source.length() + 1);
+            int deleted = random.nextInt(Math.min(8, source.length() - offset) + 1);
+            String inserted = random.nextBoolean() ? INSERTIONS[random.nextInt(INSERTIONS.length)] : "";
+
+            lexer = lexer.relex(new Edit(offset, deleted, inserted));
+
+            VivaLexer full = lexer(Source.of(lexer.getInput().text(0, lexer.getInput().length())), maxErrors);
+            full.tokenize();
+
+            assertSameTokens(full.getOutput(), lexer.getOutput());
+            assertEquals(messages(full.getDiagnostics()), messages(lexer.getDiagnostics()), "diagnostics after edit " + i);
+        }
+    }
+
+    @Test
+    public void relexMatchesFullTokenize() {
+        assertRelexMatchesFullTokenize(Samples.program(40), 100, 1);
+        assertRelexMatchesFullTokenize(Samples.PROGRAM, 100, 2);
+    }
+
+    @Test
+    public void relexMatchesFullTokenizeDiagnostics() {
+        assertRelexMatchesFullTokenize(Samples.broken(40), 100, 3);
+        assertRelexMatchesFullTokenize(Samples.broken(40), 3, 4);
+    }
+}
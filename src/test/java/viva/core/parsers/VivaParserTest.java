@@ -0,0 +1,199 @@
+package viva.core.parsers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import viva.Samples;
+import viva.base.common.Diagnostic;
+import viva.base.common.Diagnostics;
+import viva.base.common.Edit;
+import viva.base.common.TokenBuffer;
+import viva.base.common.ast.Node;
+import viva.base.common.ast.Spans;
+import viva.base.lexers.AbstractLexer;
+import viva.core.lexers.VivaLexer;
+import viva.utils.Formatter;
+
+public class VivaParserTest {
+    private static final String[] INSERTIONS = { "", "x", " ", "\n", "=", "let", "{", "}", "12", ";", " + 1", " x = x + 1 ", "(", ")", "while (x) { }" };
+
+    private static TokenBuffer tokenize(String text) {
+        VivaLexer lexer = new VivaLexer(text);
+        lexer.tokenize();
+
+        return lexer.getOutput();
+    }
+
+    private static String show(VivaParser parser) {
+        StringBuilder builder = new StringBuilder();
+
+        for (Diagnostic diagnostic : parser.getDiagnostics().getEntries()) {
+            builder.append(diagnostic).append('\n');
+        }
+
+        if (parser.getErrors() == 0) {
+            builder.append(new Formatter().visit(parser.getOutput()));
+        }
+
+        return builder.toString();
+    }
+
+    private static void assertSameTopLevelSpans(VivaParser expected, VivaParser actual) {
+        Node.Program program = (Node.Program) actual.getOutput();
+
+        Spans expectedSpans = expected.getSpans();
+        Spans actualSpans = actual.getSpans();
+
+        assertEquals(expectedSpans.size(), actualSpans.size(), "span count");
+
+        for (int i = 0; i < actualSpans.size(); i++) {
+            assertTrue(actualSpans.root(i) == program.body.get(i), "span root " + i);
+            assertEquals(expectedSpans.start(i), actualSpans.start(i), "start of statement " + i);
+            assertEquals(expectedSpans.end(i), actualSpans.end(i), "end of statement " + i);
+        }
+    }
+
+    private static void assertParallelMatchesSequential(String text, int maxErrors) {
+        TokenBuffer tokens = tokenize(text);
+
+        VivaParser sequential = new VivaParser(tokens, new Diagnostics(maxErrors));
+        sequential.trackSpans();
+        sequential.parse();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            for (int chunkSize : new int[] { 16, 500, VivaParser.DEFAULT_CHUNK_SIZE }) {
+                VivaParser parallel = new VivaParser(tokens, new Diagnostics(maxErrors));
+                parallel.trackSpans();
+                parallel.parse(pool, chunkSize);
+
+                assertEquals(show(sequential), show(parallel));
+                assertEquals(sequential.getErrors(), parallel.getErrors());
+
+                if (sequential.getErrors() == 0) {
+                    assertSameTopLevelSpans(sequential, parallel);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelParseMatchesSequential() {
+        assertParallelMatchesSequential(Samples.program(300), 100);
+    }
+
+    @Test
+    public void parallelParseMatchesSequentialDiagnostics() {
+        VivaParser parser = new VivaParser(tokenize(Samples.broken(300)));
+        parser.parse();
+
+        assertTrue(parser.getDiagnostics().getErrors() > 2);
+
+        assertParallelMatchesSequential(Samples.broken(300), 100);
+        assertParallelMatchesSequential(Samples.broken(300), 2);
+    }
+
+    private static Edit edit(Random random, String text) {
+        for (int tries = 0; tries < 1000 && random.nextInt(3) > 0; tries++) {
+            int offset = random.nextInt(text.length());
+            char c = text.charAt(offset);
+
+            if (Character.isDigit(c)) {
+                return random.nextBoolean() ? new Edit(offset, 1, String.valueOf(random.nextInt(10))) : new Edit(offset + 1, 0, " + 1");
+            } else if (c == ' ') {
+                return new Edit(offset, 0, " ");
+            }
+        }
+
+        int offset = random.nextInt(text.length() + 1);
+
+        return new Edit(offset, Math.min(random.nextInt(3), text.length() - offset), INSERTIONS[random.nextInt(INSERTIONS.length)]);
+    }
+
+    private static void assertSameBodySpans(VivaParser expected, VivaParser actual) {
+        Node.Program expectedProgram = (Node.Program) expected.getOutput();
+        Node.Program actualProgram = (Node.Program) actual.getOutput();
+
+        for (int i = 0; i < actualProgram.body.size(); i++) {
+            if (!(actualProgram.body.get(i) instanceof Node.Stmt.Define.Proc)
+                    || !(((Node.Stmt.Define.Proc) actualProgram.body.get(i)).body instanceof Node.Expr.Block)) {
+                continue;
+            }
+
+            List<Node.Stmt> expectedBody = ((Node.Expr.Block) ((Node.Stmt.Define.Proc) expectedProgram.body.get(i)).body).body;
+            List<Node.Stmt> actualBody = ((Node.Expr.Block) ((Node.Stmt.Define.Proc) actualProgram.body.get(i)).body).body;
+
+            for (int j = 0; j < actualBody.size(); j++) {
+                assertTrue(actual.getSpans().contains(i, actualBody.get(j)), "span of statement " + j + " in " + i);
+                assertEquals(expected.getSpans().start(i, expectedBody.get(j)), actual.getSpans().start(i, actualBody.get(j)));
+                assertEquals(expected.getSpans().end(i, expectedBody.get(j)), actual.getSpans().end(i, actualBody.get(j)));
+            }
+        }
+    }
+
+    private static int assertReparseMatchesFullParse(String text, long seed) {
+        Random random = new Random(seed);
+
+        AbstractLexer lexer = new VivaLexer(text);
+        lexer.tokenize();
+
+        VivaParser parser = new VivaParser(lexer.getOutput());
+        parser.trackSpans();
+        parser.parse();
+
+        int reused = 0;
+
+        for (int i = 0; i < 300; i++) {
+            Edit edit = edit(random, lexer.getInput().text(0, lexer.getInput().length()));
+
+            AbstractLexer relexed = lexer.relex(edit);
+
+            VivaParser reparsed = parser.reparse(relexed.getOutput(), edit);
+
+            VivaParser full = new VivaParser(relexed.getOutput());
+            full.trackSpans();
+            full.parse();
+
+            assertEquals(show(full), show(reparsed), "tree after " + edit);
+
+            if (full.getErrors() != 0) {
+                continue;
+            }
+
+            assertSameTopLevelSpans(full, reparsed);
+            assertSameBodySpans(full, reparsed);
+
+            Set<Node> old = Collections.newSetFromMap(new IdentityHashMap<>());
+            old.addAll(((Node.Program) parser.getOutput()).body);
+
+            for (Node.Stmt stmt : ((Node.Program) reparsed.getOutput()).body) {
+                if (old.contains(stmt)) {
+                    reused++;
+                }
+            }
+
+            lexer = relexed;
+            parser = reparsed;
+        }
+
+        return reused;
+    }
+
+    @Test
+    public void reparseMatchesFullParse() {
+        assertTrue(assertReparseMatchesFullParse(Samples.program(60), 1) > 0);
+        assertTrue(assertReparseMatchesFullParse(Samples.PROGRAM, 2) > 0);
+    }
+}
@@ -0,0 +1,118 @@
+package viva.core.resolvers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import viva.base.common.Address;
+import viva.base.common.Diagnostics;
+import viva.base.common.ast.Node;
+import viva.core.lexers.VivaLexer;
+import viva.core.parsers.VivaParser;
+
+public class VivaResolverTest {
+    private static Node.Program parse(String text) {
+        VivaLexer lexer = new VivaLexer(text);
+        lexer.tokenize();
+
+        VivaParser parser = new VivaParser(lexer.getOutput());
+        parser.parse();
+
+        assertEquals(0, parser.getErrors(), "parse errors");
+
+        return (Node.Program) parser.getOutput();
+    }
+
+    private static void assertAddress(int depth, int slot, Address address) {
+        assertNotNull(address);
+        assertEquals(depth, address.depth, "depth");
+        assertEquals(slot, address.slot, "slot");
+    }
+
+    @Test
+    public void resolvesDepthAndSlot() {
+        Node.Program program = parse(String.join("\n",
+            "let x: int = 1",
+            "let f: proc (a: int) => int = {",
+            "    let y: int = a + x",
+            "    return y;",
+            "}",
+            "let z: int = x",
+            ""));
+
+        VivaResolver resolver = new VivaResolver();
+        resolver.resolve(program);
+
+        assertEquals(0, resolver.getDiagnostics().getErrors());
+
+        Node.Stmt.Define.Proc proc = (Node.Stmt.Define.Proc) program.body.get(1);
+        Node.Expr.Block block = (Node.Expr.Block) proc.body;
+
+        Node.Expr.Binary sum = (Node.Expr.Binary) ((Node.Stmt.Define.Variable) block.body.get(0)).value;
+        Node.Expr returned = ((Node.Stmt.Return) block.body.get(1)).value;
+        Node.Expr z = ((Node.Stmt.Define.Variable) program.body.get(2)).value;
+
+        assertAddress(1, 0, resolver.address(sum.operandLeft));
+        assertAddress(2, 1, resolver.address(sum.operandRight));
+        assertAddress(0, 0, resolver.address(returned));
+        assertAddress(0, 1, resolver.address(z));
+
+        assertEquals(3, resolver.frame(program));
+        assertEquals(1, resolver.frame(proc));
+        assertEquals(1, resolver.frame(block));
+        assertEquals(-1, resolver.frame(program.body.get(0)));
+    }
+
+    @Test
+    public void innerDeclarationsShadowOuterOnes() {
+        Node.Program program = parse(String.join("\n",
+            "let x: int = 1",
+            "let f: proc () => int = {",
+            "    let x: int = x + 1",
+            "    return x;",
+            "}",
+            "let y: int = x",
+            ""));
+
+        VivaResolver resolver = new VivaResolver();
+        resolver.resolve(program);
+
+        assertEquals(0, resolver.getDiagnostics().getErrors());
+
+        Node.Expr.Block block = (Node.Expr.Block) ((Node.Stmt.Define.Proc) program.body.get(1)).body;
+
+        Node.Expr.Binary value = (Node.Expr.Binary) ((Node.Stmt.Define.Variable) block.body.get(0)).value;
+
+        assertAddress(2, 1, resolver.address(value.operandLeft));
+        assertAddress(0, 0, resolver.address(((Node.Stmt.Return) block.body.get(1)).value));
+        assertAddress(0, 1, resolver.address(((Node.Stmt.Define.Variable) program.body.get(2)).value));
+    }
+
+    @Test
+    public void reportsUndefinedNames() {
+        Node.Program program = parse(String.join("\n",
+            "let a: int = a",
+            "let b: int = w + 1",
+            "let f: proc () => int = {",
+            "    let t: int = 1",
+            "    return t;",
+            "}",
+            "let c: int = t",
+            ""));
+
+        Diagnostics diagnostics = new Diagnostics();
+
+        VivaResolver resolver = new VivaResolver(diagnostics);
+        resolver.resolve(program);
+
+        assertEquals(3, diagnostics.getErrors());
+        assertTrue(diagnostics.getEntries().get(0).message.contains("Undefined name a"));
+        assertTrue(diagnostics.getEntries().get(1).message.contains("Undefined name w"));
+        assertTrue(diagnostics.getEntries().get(2).message.contains("Undefined name t"));
+
+        assertNull(resolver.address(((Node.Stmt.Define.Variable) program.body.get(0)).value));
+    }
+}